@@ -0,0 +1,39 @@
+package benchmarks;
+
+import ai.QLearningAgent;
+import model.Board;
+import model.Coordinates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// one agent turn: pick a shot, resolve it, learn from the result; a new game starts whenever one ends.
+// getNextShot and updateFromResult allocate nothing once warm, so gc.alloc.rate.norm should stay at 0 B/op
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AgentBenchmark {
+    private QLearningAgent agent;
+    private Board board;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        agent = new QLearningAgent();
+        board = new Board();
+    }
+
+    @Benchmark
+    public String turn() {
+        Coordinates shot = agent.getNextShot();
+        String result = shot != null ? board.checkShot(shot) : "last ship sunk";
+        agent.updateFromResult(result);
+        if (result.equals("last ship sunk")) {
+            board.generateMap();
+            agent.startNewGame();
+        }
+        return result;
+    }
+}
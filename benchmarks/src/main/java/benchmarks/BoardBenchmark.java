@@ -0,0 +1,66 @@
+package benchmarks;
+
+import model.Board;
+import model.Coordinates;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    private static final int CELLS = 100;
+
+    private Board board;
+    private Board shotBoard;
+    private int cell;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = new Board();
+        shotBoard = new Board();
+        // every other cell shot, so isShipSunk sees a mix of intact, damaged and sunk ships
+        for (int i = 0; i < CELLS; i += 2) {
+            shotBoard.checkShot(Coordinates.ofIndex(i, Board.DEFAULT_SIZE));
+        }
+    }
+
+    @Benchmark
+    public void generateMap() {
+        board.generateMap();
+    }
+
+    @Benchmark
+    public void generateUniformMap() {
+        board.generateUniformMap();
+    }
+
+    @State(Scope.Thread)
+    public static class FreshBoard {
+        Board board = new Board();
+
+        @Setup(Level.Invocation)
+        public void regenerate() {
+            board.generateMap();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void checkShot(FreshBoard fresh, Blackhole blackhole) {
+        for (int i = 0; i < CELLS; i++) {
+            blackhole.consume(fresh.board.checkShot(Coordinates.ofIndex(i, Board.DEFAULT_SIZE)));
+        }
+    }
+
+    @Benchmark
+    public boolean isShipSunk() {
+        cell = (cell + 1) % CELLS;
+        return shotBoard.isShipSunk(cell / 10, cell % 10);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import ai.*;
+import model.Board;
+import model.Coordinates;
+import model.ShotSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// a single hunt decision on a board that is 40% shot
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExplorationStrategyBenchmark {
+    private static final int BOARD_SIZE = 10;
+    private static final int SHOTS = 40;
+
+    @Param({"parity", "random", "density", "composite", "posterior"})
+    public String strategyName;
+
+    private ExplorationStrategy strategy;
+    private ShotSet shotsFired;
+    private QTable qTable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = switch (strategyName) {
+            case "parity" -> new ParityExplorationStrategy(BOARD_SIZE);
+            case "random" -> new RandomExplorationStrategy(BOARD_SIZE);
+            case "density" -> new DensityExplorationStrategy(BOARD_SIZE, Board.getShipSizes());
+            case "composite" -> new CompositeExplorationStrategy(BOARD_SIZE);
+            case "posterior" -> new PosteriorSamplingStrategy(BOARD_SIZE, Board.getShipSizes(), 1);
+            default -> throw new IllegalArgumentException(strategyName);
+        };
+        shotsFired = new ShotSet(BOARD_SIZE);
+        qTable = QTable.create(BOARD_SIZE);
+
+        Board board = new Board();
+        Random random = new Random(42);
+        for (int i = 0; i < SHOTS; i++) {
+            Coordinates shot = Coordinates.ofIndex(shotsFired.randomUnshot(random), BOARD_SIZE);
+            shotsFired.add(shot);
+            strategy.onShotResult(shot, board.checkShot(shot));
+        }
+    }
+
+    @Benchmark
+    public Coordinates getExplorationShot() {
+        return strategy.getExplorationShot(shotsFired, qTable);
+    }
+}
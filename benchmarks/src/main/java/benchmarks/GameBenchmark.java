@@ -0,0 +1,50 @@
+package benchmarks;
+
+import ai.QLearningAgent;
+import model.Board;
+import model.GameListener;
+import model.GameSession;
+import model.RandomShooter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// complete headless games on the same GameSession engine the self-play trainer and local games run
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    private Board board;
+    private Board botBoard;
+    private GameSession solo;
+    private GameSession versusBot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        QLearningAgent agent = new QLearningAgent();
+        board = new Board();
+        botBoard = new Board();
+        solo = GameSession.solo(agent, board, GameListener.NONE);
+        versusBot = new GameSession(agent, botBoard,
+                new RandomShooter(Board.DEFAULT_SIZE, new SplittableRandom(42)), board, GameListener.NONE);
+    }
+
+    @Benchmark
+    public int simulatedGame() {
+        board.generateMap();
+        solo.play();
+        return solo.getShots(0);
+    }
+
+    // the agent against the random bot, both fleets freshly placed
+    @Benchmark
+    public int agentVersusBot() {
+        board.generateMap();
+        botBoard.generateMap();
+        return versusBot.play();
+    }
+}
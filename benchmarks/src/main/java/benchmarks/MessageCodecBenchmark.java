@@ -0,0 +1,46 @@
+package benchmarks;
+
+import model.Board;
+import model.Coordinates;
+import network.BinaryCodec;
+import network.Message;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageCodecBenchmark {
+    private final ByteBuffer buffer = ByteBuffer.allocate(64);
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = new Message("hit and sunk", Coordinates.of(6, 1).toString());
+    }
+
+    @Benchmark
+    public Message textRoundTrip() {
+        byte[] line = message.format().getBytes(StandardCharsets.UTF_8);
+        return Message.parse(new String(line, 0, line.length - 1, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Message binaryRoundTrip() {
+        buffer.clear();
+        BinaryCodec.encode(message, 0, buffer);
+        buffer.flip();
+        return BinaryCodec.decode(buffer);
+    }
+
+    @Benchmark
+    public Coordinates parseCoordinates() {
+        return Coordinates.parse(message.coordinates(), Board.DEFAULT_SIZE);
+    }
+}
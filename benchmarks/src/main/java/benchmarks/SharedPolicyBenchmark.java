@@ -0,0 +1,60 @@
+package benchmarks;
+
+import ai.AgentConfig;
+import ai.QLearningAgent;
+import ai.QTable;
+import model.Board;
+import model.Coordinates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// agent turns on as many threads as the machine has, each agent with its own table or all on one shared table;
+// throughput per thread should stay close for both, i.e. the shared table scales with cores
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class SharedPolicyBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Policy {
+        @Param({"private", "shared"})
+        public String policy;
+
+        QTable shared;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            shared = QTable.shared(Board.DEFAULT_SIZE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        QLearningAgent agent;
+        Board board;
+
+        @Setup(Level.Trial)
+        public void setUp(Policy policy) {
+            QTable table = policy.policy.equals("shared") ? policy.shared : QTable.create(Board.DEFAULT_SIZE);
+            agent = new QLearningAgent(table, Board.getShipSizes(), AgentConfig.getDefault(), null, new SplittableRandom());
+            board = new Board();
+        }
+    }
+
+    @Benchmark
+    public String turn(Worker worker) {
+        Coordinates shot = worker.agent.getNextShot();
+        String result = shot != null ? worker.board.checkShot(shot) : "last ship sunk";
+        worker.agent.updateFromResult(result);
+        if (result.equals("last ship sunk")) {
+            worker.board.generateMap();
+            worker.agent.startNewGame();
+        }
+        return result;
+    }
+}
@@ -1,5 +1,15 @@
 import model.GameConfig;
 import model.GameMode;
+import model.RenderMode;
+import journal.JournalReplay;
+import network.MatchServer;
+import training.OfflineTrainer;
+import training.SelfPlayTrainer;
+import training.SweepRunner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 
 public class Main {
@@ -7,7 +17,44 @@ public class Main {
         GameConfig config = parseArgs(args);
         if (config == null) {
             System.out.println("Wrong parameters. Use:");
-            System.out.println("-mode [ai|bot|server|client] [-port N] [-host hostName]");
+            System.out.println("-mode [ai|bot|server|client|ai-server|ai-client|bot-server|bot-client|train|offline|sweep|host|replay] [-port N] [-host hostName] [-games N] [-episodes N] [-threads N] [-sampler ms] [-qtable file] [-checkpoint seconds] [-protocol binary|text] [-timeout ms] [-heartbeat ms] [-reconnect ms] [-journal dir] [-sweep samples] [-seed N] [-size N] [-fleet 5,4,3,3,2] [-policy shared|private] [-render auto|ansi|plain|none]");
+            return;
+        }
+
+        if (config.getMode() == GameMode.TRAIN) {
+            new SelfPlayTrainer(config).run();
+            return;
+        }
+
+        if (config.getMode() == GameMode.SWEEP) {
+            new SweepRunner(config).run();
+            return;
+        }
+
+        if (config.getMode() == GameMode.HOST) {
+            try (MatchServer server = new MatchServer(config.getPort())) {
+                server.run();
+            } catch (IOException e) {
+                System.out.println("Server error: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (config.getMode() == GameMode.OFFLINE) {
+            try {
+                new OfflineTrainer(config).run();
+            } catch (IOException e) {
+                System.out.println("Offline training failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (config.getMode() == GameMode.REPLAY) {
+            try {
+                new JournalReplay(Path.of(config.getJournalPath())).run();
+            } catch (IOException e) {
+                System.out.println("Replay failed: " + e.getMessage());
+            }
             return;
         }
 
@@ -27,8 +74,17 @@ public class Main {
                     switch (args[i + 1]) {
                         case "server" -> config.setMode(GameMode.SERVER);
                         case "client" -> config.setMode(GameMode.CLIENT);
+                        case "ai-server" -> config.setMode(GameMode.AI_SERVER);
+                        case "ai-client" -> config.setMode(GameMode.AI_CLIENT);
+                        case "bot-server" -> config.setMode(GameMode.BOT_SERVER);
+                        case "bot-client" -> config.setMode(GameMode.BOT_CLIENT);
                         case "ai" -> config.setMode(GameMode.AI_USER);
                         case "bot" -> config.setMode(GameMode.BOT_USER);
+                        case "train" -> config.setMode(GameMode.TRAIN);
+                        case "host" -> config.setMode(GameMode.HOST);
+                        case "replay" -> config.setMode(GameMode.REPLAY);
+                        case "offline" -> config.setMode(GameMode.OFFLINE);
+                        case "sweep" -> config.setMode(GameMode.SWEEP);
                         default -> {
                             return null;
                         }
@@ -44,6 +100,125 @@ public class Main {
                 case "-host":
                     config.setHostName(args[i + 1]);
                     break;
+                case "-games":
+                    try {
+                        config.setGames(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-episodes":
+                    try {
+                        config.setEpisodes(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-threads":
+                    try {
+                        config.setThreads(Integer.parseInt(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-sampler":
+                    try {
+                        config.setSamplerBudgetMillis(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-sweep":
+                    try {
+                        config.setSweepSamples(Integer.parseInt(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-seed":
+                    try {
+                        config.setSeed(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-size":
+                    try {
+                        config.setBoardSize(Integer.parseInt(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-fleet":
+                    try {
+                        config.setFleet(Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-journal":
+                    config.setJournalPath(args[i + 1]);
+                    break;
+                case "-qtable":
+                    config.setQTablePath(args[i + 1]);
+                    break;
+                case "-checkpoint":
+                    try {
+                        config.setCheckpointSeconds(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-protocol":
+                    switch (args[i + 1]) {
+                        case "binary" -> config.setBinaryProtocol(true);
+                        case "text" -> config.setBinaryProtocol(false);
+                        default -> {
+                            return null;
+                        }
+                    }
+                    break;
+                case "-render":
+                    switch (args[i + 1]) {
+                        case "auto" -> config.setRenderMode(RenderMode.AUTO);
+                        case "ansi" -> config.setRenderMode(RenderMode.ANSI);
+                        case "plain" -> config.setRenderMode(RenderMode.PLAIN);
+                        case "none" -> config.setRenderMode(RenderMode.NONE);
+                        default -> {
+                            return null;
+                        }
+                    }
+                    break;
+                case "-policy":
+                    switch (args[i + 1]) {
+                        case "shared" -> config.setSharedPolicy(true);
+                        case "private" -> config.setSharedPolicy(false);
+                        default -> {
+                            return null;
+                        }
+                    }
+                    break;
+                case "-timeout":
+                    try {
+                        config.setTurnTimeoutMillis(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-heartbeat":
+                    try {
+                        config.setHeartbeatMillis(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
+                case "-reconnect":
+                    try {
+                        config.setReconnectMillis(Long.parseLong(args[i + 1]));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    break;
                 default:
                     return null;
             }
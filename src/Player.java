@@ -1,40 +1,75 @@
 import model.Board;
+import model.BoardRenderer;
+import model.CellMask;
 import model.Coordinates;
 import model.GameConfig;
-import model.GameMode;
+import model.GameListener;
+import model.GameSession;
+import model.RandomShooter;
+import model.Shooter;
+import model.ShotSet;
 import network.Message;
 import network.NetworkHandler;
+import ai.AgentConfig;
+import ai.AgentSnapshot;
+import ai.ExplorationStrategy;
+import ai.PosteriorSamplingStrategy;
 import ai.QLearningAgent;
-
-import java.util.HashSet;
-import java.util.Random;
+import ai.QTableStore;
+import ai.ShotSource;
+import journal.GameJournal;
+import telemetry.GameEvent;
+import telemetry.TurnEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
-import java.util.Set;
+import java.util.SplittableRandom;
 
 public class Player {
     private final GameConfig config;
     private final Board myBoard;
     private final Board enemyBoard;
+    private final Board opponentBoard; // the bot's or agent's hidden fleet in local games, null over the network
     private final NetworkHandler network;
-    private final Random random;
-    private final Set<Coordinates> shotsFired;
+    private final BoardRenderer renderer;
+    private final SplittableRandom random;
+    private final ShotSet shotsFired;
     private Coordinates lastShot;
+    private boolean openingRefused; // a match server relayed the opponent's opening instead of lastShot
     private QLearningAgent ai;
+    private final Shooter computer; // the agent or the bot: this side over the network, the opponent in local games
+    private GameJournal journal;
+    // this side's own shots, journaled as a game of their own once it ends, when the fleet they hit is known
+    private Coordinates[] ownShots;
+    private String[] ownResults;
+    private ShotSource[] ownSources;
+    private int ownShotCount;
+    private CellMask ownHits;
+    private Scanner input; // one for the whole session, a fresh Scanner per prompt would lose what the last one buffered
 
     public Player(GameConfig config) {
         this.config = config;
-        this.myBoard = new Board();
-        this.enemyBoard = new Board('?');
-        this.random = new Random();
-        this.shotsFired = new HashSet<>();
-
-        if (config.getMode() == GameMode.AI_USER){
-            this.ai = new QLearningAgent();
+        this.random = new SplittableRandom(config.getSeed());
+        this.myBoard = new Board(config.getBoardSize(), config.getFleet(), random.split());
+        this.enemyBoard = new Board(config.getBoardSize(), '?');
+        this.opponentBoard = !config.getMode().isNetworked() // the opponent's fleet, played on this machine
+                ? new Board(config.getBoardSize(), config.getFleet(), random.split())
+                : null;
+        this.shotsFired = new ShotSet(config.getBoardSize());
+        this.renderer = new BoardRenderer(config.getRenderMode(), myBoard, enemyBoard, System.out);
+
+        if (config.getMode().isAgent()) {
+            this.ai = createAgent();
         }
+        this.computer = ai != null ? ai
+                : config.getMode().isBot() ? new RandomShooter(config.getBoardSize(), random.split())
+                : null;
 
-        if (config.getMode() == GameMode.SERVER || config.getMode() == GameMode.CLIENT) {
+        if (config.getMode().isNetworked()) {
             try {
-                this.network = new NetworkHandler(config.getMode(), config.getPort(), config.getHostName());
+                this.network = new NetworkHandler(config);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to initialize network", e);
             }
@@ -43,92 +78,172 @@ public class Player {
         }
     }
 
-    private Coordinates getTarget() {
-        return switch (config.getMode()) {
-            case SERVER, CLIENT -> getUserTarget();
-            case AI_USER -> getAITarget();
-            case BOT_USER -> getRandomTarget();
-        };
-    }
+    private QLearningAgent createAgent() {
+        ExplorationStrategy targeting = config.getSamplerBudgetMillis() > 0
+                ? new PosteriorSamplingStrategy(config.getBoardSize(), config.getFleet(), config.getSamplerBudgetMillis(),
+                        random.split())
+                : null;
 
-    private Coordinates getUserTarget() {
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
+        if (config.getQTablePath() != null && Files.exists(Path.of(config.getQTablePath()))) {
             try {
-                System.out.print("Enter target coordinates: ");
-                String input = scanner.nextLine().trim().toUpperCase();
-
-                if (!input.matches("[A-J][1-9]0?")) {
-                    System.out.println("Invalid format - please use letter A-J followed by number 1-10");
-                    continue;
+                AgentSnapshot snapshot = QTableStore.load(Path.of(config.getQTablePath()));
+                if (snapshot.boardSize() == config.getBoardSize()) {
+                    return new QLearningAgent(snapshot, config.getFleet(), targeting, random.split());
                 }
+                System.out.println("Q-table was learned on a " + snapshot.boardSize() + "x" + snapshot.boardSize()
+                        + " board, starting fresh");
+            } catch (IOException e) {
+                System.out.println("Could not load Q-table, starting fresh: " + e.getMessage());
+            }
+        }
+        return new QLearningAgent(config.getBoardSize(), config.getFleet(), AgentConfig.getDefault(), targeting,
+                random.split());
+    }
 
-                Coordinates coords = new Coordinates(input);
+    private void saveAgent() {
+        if (ai == null || config.getQTablePath() == null) return;
+        try {
+            QTableStore.save(ai.snapshot(), Path.of(config.getQTablePath()));
+        } catch (IOException e) {
+            System.out.println("Could not save Q-table: " + e.getMessage());
+        }
+    }
 
-                shotsFired.add(coords);
-                return coords;
+    // journals two games for every game played, under the same id: the shots fired at this player's board, written as
+    // they land, then this player's shots at the opponent's fleet
+    private void openJournal() {
+        if (config.getJournalPath() == null) return;
+        try {
+            journal = GameJournal.open(Path.of(config.getJournalPath()), "player-" + ProcessHandle.current().pid());
+            int cells = config.getBoardSize() * config.getBoardSize();
+            ownShots = new Coordinates[2 * cells]; // repeats included, like the journal's own allowance
+            ownResults = new String[2 * cells];
+            ownSources = new ShotSource[2 * cells];
+            ownHits = new CellMask(cells);
+        } catch (IOException e) {
+            System.out.println("Could not open the game journal: " + e.getMessage());
+        }
+    }
 
-            } catch (IllegalArgumentException e) {
-                System.out.println("Invalid coordinates: " + e.getMessage());
+    private void beginJournal(long gameId) {
+        if (journal == null) return;
+        try {
+            journal.beginGame(gameId, myBoard);
+        } catch (IOException e) {
+            System.out.println("Could not write the game journal: " + e.getMessage());
+            closeJournal();
+        }
+    }
+
+    private void journalShot(Coordinates target, String result, ShotSource source) {
+        if (journal != null) journal.recordShot(target, result, source);
+    }
+
+    private void journalOwnShot(Coordinates target, String result, ShotSource source) {
+        if (journal == null || ownShotCount == ownShots.length) return;
+        ownShots[ownShotCount] = target;
+        ownResults[ownShotCount] = result;
+        ownSources[ownShotCount++] = source;
+        if (!result.equals("miss")) ownHits.set(target.index(config.getBoardSize()));
+    }
+
+    private void endJournal(long gameId) {
+        if (journal == null) return;
+        journal.endGame(myBoard.isLastShip());
+
+        // a network opponent's fleet is only known by the cells this side hit, which is all of it when this side won
+        CellMask targets = opponentBoard != null ? opponentBoard.getShips() : ownHits;
+        boolean won = ownShotCount > 0 && ownResults[ownShotCount - 1].equals("last ship sunk");
+        try {
+            journal.beginGame(gameId, config.getBoardSize(), targets);
+            for (int i = 0; i < ownShotCount; i++) {
+                journal.recordShot(ownShots[i], ownResults[i], ownSources[i]);
             }
+            journal.endGame(won);
+        } catch (IOException e) {
+            System.out.println("Could not write the game journal: " + e.getMessage());
+            closeJournal();
+        } finally {
+            ownShotCount = 0;
+            if (ownHits != null) ownHits.clear();
         }
     }
 
-    private Coordinates getAITarget() {
-        if (ai == null) {
-            throw new IllegalStateException("AI not initialized");
+    // what picked this side's shot in a network game
+    private ShotSource ownShotSource() {
+        if (computer == null) return ShotSource.HUMAN;
+        return ai != null ? ai.getLastShotSource() : ShotSource.RANDOM;
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Could not close the game journal: " + e.getMessage());
         }
+        journal = null;
+    }
 
-        Coordinates target = ai.getNextShot();
-        if (target == null || shotsFired.contains(target)) {
-            return getRandomTarget();
+    // stops the reader and the heartbeat and releases the socket, and on the server the port kept open for resumes
+    private void closeNetwork() {
+        if (network == null) return;
+        try {
+            network.close();
+        } catch (IOException e) {
+            System.out.println("Could not close the connection: " + e.getMessage());
         }
+    }
+
+    // this side's next shot in a network game, from the console unless the agent or the bot plays it
+    private Coordinates getTarget() {
+        if (computer == null) return getUserTarget();
 
-        shotsFired.add(target);
-        lastShot = target;
+        Coordinates target = computer.getNextShot();
+        if (target != null) shotsFired.add(target);
         return target;
     }
 
-    private Coordinates getRandomTarget() {
-        if (shotsFired.size() >= 100) { // all positions tried
-            return null;
-        }
+    private Coordinates getUserTarget() {
+        if (input == null) input = new Scanner(System.in);
+        while (true) {
+            try {
+                System.out.print("Enter target coordinates: ");
+                Coordinates coords = Coordinates.parse(input.nextLine().trim(), config.getBoardSize());
 
-        Coordinates coords;
-        do {
-            int row = random.nextInt(10);
-            int col = random.nextInt(10);
-            coords = new Coordinates(row, col);
-        } while (shotsFired.contains(coords));
+                shotsFired.add(coords);
+                return coords;
 
-        shotsFired.add(coords);
-        return coords;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid coordinates: " + e.getMessage());
+            }
+        }
     }
 
-    private void handleShot(String coords) {
+    // resolves the opponent's shot and answers with its result and this side's next shot; true once the last ship sank
+    private boolean handleShot(String coords) {
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        Coordinates shotCoords = null;
+        String result = null;
         try {
-            Coordinates shotCoords = new Coordinates(coords);
-            String result = myBoard.checkShot(shotCoords);
+            shotCoords = Coordinates.parse(coords, config.getBoardSize());
+            result = myBoard.checkShot(shotCoords);
+            journalShot(shotCoords, result, ShotSource.REMOTE);
 
-            if (config.getMode() == GameMode.AI_USER && ai != null) {
-                ai.updateFromResult(result);
-            }
+            char marker = result.equals("miss") ? '~' : 'X';
+            myBoard.markShot(shotCoords.getRow(), shotCoords.getCol(), marker);
 
-            if (result.equals("hit and sunk")) {
+            if (result.equals("last ship sunk")) {
                 network.sendMessage(new Message(result, null));
                 handleGameEnd(false);
-                return;
+                return true;
             }
 
-            char marker = result.equals("miss") ? '~' : '#';
-            myBoard.markShot(shotCoords.getRow(), shotCoords.getCol(), marker);
-
-            System.out.println("\nYour board:");
-            myBoard.displayBoard();
-            System.out.println("\nEnemy board:");
-            enemyBoard.displayBoard();
+            renderer.render();
 
-            Coordinates myShot = getTarget();
+            Coordinates myShot = openingRefused ? lastShot : getTarget();
+            openingRefused = false;
             if (myShot == null) {
                 throw new RuntimeException("No valid shots remaining");
             }
@@ -137,143 +252,198 @@ public class Player {
             lastShot = myShot;
         } catch (IllegalArgumentException e) {
             System.out.println("Invalid coordinates: " + e.getMessage());
+        } finally {
+            if (result != null) commitTurn(event, "remote", shotCoords, result);
         }
+        return false;
     }
 
+    // plays config.getGames() games in a row, over the network on the same connection, and reports the rate
     public void start() {
+        long firstGameId = System.currentTimeMillis();
+        long games = config.getGames();
+        long played = 0;
+        long won = 0;
+        long begin = System.nanoTime();
+        openJournal();
         try {
-            System.out.println("\nYour board:");
-            myBoard.displayBoard();
-
-            if (config.getMode() == GameMode.CLIENT) {
-                Coordinates firstMove = getTarget();
-                network.sendMessage(new Message("start", firstMove.toString()));
-            } else if (config.getMode() == GameMode.BOT_USER) {
-                playAgainstBot();
-                return;
-            } else if (config.getMode() == GameMode.AI_USER) {
-                playAIGame();
-                return;
+            for (; played < games; played++) {
+                if (played > 0) startNewGame();
+                if (playGame(firstGameId + played)) won++;
             }
-
-
-            playGame();
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
+        } finally {
+            renderer.close();
+            closeNetwork();
+            closeJournal();
+            saveAgent();
         }
-    }
-
-    private void processPlayerTurn(Coordinates target) {
-        String result = myBoard.checkShot(target);
-        System.out.println("Result: " + result);
 
-        char marker = result.equals("miss") ? '~' : '#';
-        enemyBoard.markShot(target.getRow(), target.getCol(), marker);
-
-        if (result.equals("last ship sunk")) {
-            System.out.println("Congratulations! You win!");
+        if (games > 1) {
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("Played %d games in %.2f s (%.0f games/sec), won %d%n", played, seconds, played / seconds, won);
         }
     }
 
-    private void processOpponentTurn(Coordinates target, String player) {
-        if (target == null) {
-            System.out.println("Game ended - no more valid targets");
-            return;
-        }
-
-        String result = myBoard.checkShot(target);
-        System.out.println(player + " fired at " + target + ": " + result);
+    private void startNewGame() {
+        myBoard.generateMap();
+        if (opponentBoard != null) opponentBoard.generateMap();
+        enemyBoard.fill('?');
+        shotsFired.clear();
+        lastShot = null;
+        openingRefused = false;
+        if (computer != null) computer.startNewGame();
+    }
 
-        if (config.getMode() == GameMode.AI_USER && ai != null) {
-            ai.updateFromResult(result);
+    // one game from this player's side, true if they won
+    private boolean playGame(long gameId) {
+        GameEvent event = new GameEvent();
+        event.begin();
+        beginJournal(gameId);
+        boolean won = false;
+        try {
+            renderer.renderYours();
+            won = switch (config.getMode()) {
+                case BOT_USER, AI_USER -> playLocalGame();
+                default -> playNetworkGame();
+            };
+            return won;
+        } finally {
+            endJournal(gameId);
+            if (event.shouldCommit()) {
+                event.mode = config.getMode().name().toLowerCase();
+                event.gameId = gameId;
+                event.shots = shotsFired.size();
+                event.won = won;
+                event.commit();
+            }
         }
+    }
 
-        char marker = result.equals("miss") ? '~' : '#';
-        myBoard.markShot(target.getRow(), target.getCol(), marker);
+    // a turn covers resolving the shot and reacting to it, and in network games choosing and sending the reply
+    private static void commitTurn(TurnEvent event, String shooter, Coordinates target, String result) {
+        if (!event.shouldCommit()) return;
+        event.shooter = shooter;
+        event.target = target.toString();
+        event.result = result;
+        event.commit();
+    }
 
-        if (result.equals("last ship sunk")) {
-            System.out.println("Game Over - " + player + " wins!");
-        }
+    // the human against the bot or the agent on this machine, both boards held here; true if the human won
+    private boolean playLocalGame() {
+        String opponent = ai != null ? "AI" : "Bot";
+        return new GameSession(new ConsoleShooter(), myBoard, computer, opponentBoard, new LocalTurns(opponent)).play() == 0;
     }
 
-    private void playAgainstBot() {
-        while (true) {
-            System.out.println("\nEnemy's board:");
-            enemyBoard.displayBoard();
+    private class ConsoleShooter implements Shooter {
+        @Override
+        public void startNewGame() {}
 
-            // human's turn
+        @Override
+        public Coordinates getNextShot() {
+            renderer.renderEnemy();
             System.out.print("\nYour turn - ");
-            Coordinates target = getUserTarget();
-            processPlayerTurn(target);
-            if (myBoard.isLastShip()) break;
+            return getUserTarget();
+        }
 
-            // bot's turn
-            processOpponentTurn(getRandomTarget(), "Bot");
-            if (myBoard.isLastShip()) break;
+        @Override
+        public void updateFromResult(String result) {
+            // marked on the enemy board by LocalTurns
         }
     }
 
-    private void playAIGame() {
-        while (true) {
-            System.out.println("\nEnemy's board:");
-            enemyBoard.displayBoard();
+    // console output, board marks, journal and telemetry for a local game; side 0 is the human
+    private class LocalTurns implements GameListener {
+        private final String opponent;
+        private TurnEvent event;
 
-            System.out.print("\nYour turn - ");
-            Coordinates target = getUserTarget();
-            processPlayerTurn(target);
-            if (myBoard.isLastShip()) break;
+        LocalTurns(String opponent) {
+            this.opponent = opponent;
+        }
 
-            processOpponentTurn(getAITarget(), "AI");
-            if (myBoard.isLastShip()) break;
+        @Override
+        public void onShot(int side, Coordinates shot) {
+            event = new TurnEvent();
+            event.begin();
+        }
+
+        @Override
+        public void onResult(int side, Coordinates shot, String result) {
+            if (side == 0) {
+                renderer.log("Result: " + result);
+                journalOwnShot(shot, result, ShotSource.HUMAN);
+                enemyBoard.markShot(shot.getRow(), shot.getCol(), result.equals("miss") ? '~' : '#');
+                if (result.equals("last ship sunk")) {
+                    System.out.println("Congratulations! You win!");
+                }
+                commitTurn(event, "human", shot, result);
+            } else {
+                renderer.log(opponent + " fired at " + shot + ": " + result);
+                journalShot(shot, result, ai != null ? ai.getLastShotSource() : ShotSource.RANDOM);
+                myBoard.markShot(shot.getRow(), shot.getCol(), result.equals("miss") ? '~' : 'X');
+                if (result.equals("last ship sunk")) {
+                    System.out.println("Game Over - " + opponent + " wins!");
+                }
+                commitTurn(event, opponent.toLowerCase(), shot, result);
+            }
         }
     }
 
     private void handleGameEnd(boolean won) {
-        if (won) {
-            System.out.println("Congratulations! You won!");
-        } else {
-            System.out.println("Game Over - You lost!");
-        }
-        System.out.println("\nFinal board states:");
-        System.out.println("\nYour board:");
-        myBoard.displayBoard();
-        System.out.println("\nEnemy's board:");
-        enemyBoard.displayBoard();
+        renderer.log(won ? "Congratulations! You won!" : "Game Over - You lost!");
+        renderer.log("\nFinal board states:");
+        renderer.render();
     }
 
-    private void playGame() {
+    // the client opens every game with "start"; after that each message carries the result of the receiver's last shot
+    // and the sender's next one, until one side answers "last ship sunk"
+    private boolean playNetworkGame() {
+        if (!config.getMode().isServer()) {
+            Coordinates firstMove = getTarget();
+            lastShot = firstMove;
+            network.sendMessage(new Message("start", firstMove.toString()));
+        }
+
         while (true) {
             Message message = network.receiveMessage();
-            if (message == null) continue;
+            if (renderer.isLogging()) renderer.log("Received: " + message.format().trim());
 
-            System.out.println("Received: " + message.format().trim());
+            if (lastShot != null && !message.command().equals("start")) {
+                recordResult(lastShot, message.command());
+                lastShot = null;
+            } else if (lastShot != null) {
+                // both sides opened and the match server only relays one start; ours is still unanswered, so it
+                // goes out again as the answer to theirs instead of drawing a new shot
+                openingRefused = true;
+            }
 
             if (message.command().equals("last ship sunk")) {
                 handleGameEnd(true);
-                return;
-            }
-
-            if (lastShot != null) {
-                switch (message.command()) {
-                    case "miss":
-                        enemyBoard.markShot(lastShot.getRow(), lastShot.getCol(), '~');
-                        break;
-                    case "hit":
-                        enemyBoard.markShot(lastShot.getRow(), lastShot.getCol(), '#');
-                        break;
-                    case "hit and sunk":
-                        enemyBoard.markShot(lastShot.getRow(), lastShot.getCol(), '#');
-                        enemyBoard.markBorders(lastShot.getRow(), lastShot.getCol());
-                        break;
-                }
-                lastShot = null;
+                return true;
             }
 
             String coords = message.coordinates();
-            if (coords != null) {
-                handleShot(coords);
+            if (coords != null && handleShot(coords)) {
+                return false;
             }
         }
     }
 
-}
\ No newline at end of file
+    // what the opponent answered about this side's last shot; the agent learns from its own shots only
+    private void recordResult(Coordinates shot, String result) {
+        switch (result) {
+            case "miss" -> enemyBoard.markShot(shot.getRow(), shot.getCol(), '~');
+            case "hit" -> enemyBoard.markShot(shot.getRow(), shot.getCol(), '#');
+            case "hit and sunk", "last ship sunk" -> {
+                enemyBoard.markShot(shot.getRow(), shot.getCol(), '#');
+                enemyBoard.markBorders(shot.getRow(), shot.getCol());
+            }
+            default -> {
+                return; // not a shot result
+            }
+        }
+        journalOwnShot(shot, result, ownShotSource());
+        if (computer != null) computer.updateFromResult(result);
+    }
+}
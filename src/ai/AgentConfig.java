@@ -0,0 +1,9 @@
+package ai;
+
+// the tunable settings of a fresh agent; learned state travels in AgentSnapshot instead
+public record AgentConfig(double learningRate, double discountFactor, ExplorationConfig exploration) {
+
+    public static AgentConfig getDefault() {
+        return new AgentConfig(0.1, 0.9, ExplorationConfig.getDefault());
+    }
+}
@@ -0,0 +1,26 @@
+package ai;
+
+import java.util.List;
+
+// everything an agent has learned, detached from the live agent so it can be stored or shared
+public record AgentSnapshot(int boardSize, double learningRate, double discountFactor, ExplorationConfig explorationConfig,
+                            double explorationRate, long explorationMoves, double[] qValues) {
+
+    // element-wise mean of snapshots taken from agents trained in parallel
+    public static AgentSnapshot average(List<AgentSnapshot> snapshots) {
+        AgentSnapshot first = snapshots.get(0);
+        double[] qValues = new double[first.qValues.length];
+        double explorationRate = 0;
+        long explorationMoves = 0;
+
+        for (AgentSnapshot snapshot : snapshots) {
+            for (int i = 0; i < qValues.length; i++) {
+                qValues[i] += snapshot.qValues[i] / snapshots.size();
+            }
+            explorationRate += snapshot.explorationRate / snapshots.size();
+            explorationMoves += snapshot.explorationMoves / snapshots.size();
+        }
+        return new AgentSnapshot(first.boardSize, first.learningRate, first.discountFactor, first.explorationConfig,
+                explorationRate, explorationMoves, qValues);
+    }
+}
\ No newline at end of file
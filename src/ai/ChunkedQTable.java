@@ -0,0 +1,66 @@
+package ai;
+
+import model.ShotSet;
+
+// for large boards: values live in fixed-size chunks that are only allocated once one of their cells is written,
+// an untouched chunk still reads as the initial values, so memory follows the cells the agent has learned about
+class ChunkedQTable implements QTable {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_CELLS = 1 << CHUNK_BITS;
+
+    private final int boardSize;
+    private final double[][] chunks;
+
+    ChunkedQTable(int boardSize) {
+        this.boardSize = boardSize;
+        this.chunks = new double[(boardSize * boardSize + CHUNK_CELLS - 1) >>> CHUNK_BITS][];
+    }
+
+    @Override
+    public int boardSize() { return boardSize; }
+
+    @Override
+    public double get(int cell) {
+        double[] chunk = chunks[cell >>> CHUNK_BITS];
+        return chunk != null ? chunk[cell & (CHUNK_CELLS - 1)] : QTable.initialValue(boardSize, cell);
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        int index = cell >>> CHUNK_BITS;
+        double[] chunk = chunks[index];
+        if (chunk == null) {
+            if (value == QTable.initialValue(boardSize, cell)) return; // nothing to remember yet
+            chunk = chunks[index] = new double[CHUNK_CELLS];
+            int first = index << CHUNK_BITS;
+            for (int i = 0; i < CHUNK_CELLS; i++) {
+                chunk[i] = QTable.initialValue(boardSize, first + i);
+            }
+        }
+        chunk[cell & (CHUNK_CELLS - 1)] = value;
+    }
+
+    // an untouched chunk holds nothing above the checkerboard prior, so once that is beaten the chunk is skipped whole
+    @Override
+    public int bestUnshot(ShotSet shotsFired) {
+        double prior = QTable.initialValue(boardSize, 0);
+        double best = Double.NEGATIVE_INFINITY;
+        int bestCell = -1;
+        for (int index = 0; index < chunks.length; index++) {
+            double[] chunk = chunks[index];
+            if (chunk == null && best >= prior) continue;
+
+            int first = index << CHUNK_BITS;
+            for (int cell = shotsFired.nextUnshot(first); cell >= 0 && cell < first + CHUNK_CELLS;
+                 cell = shotsFired.nextUnshot(cell + 1)) {
+                double q = chunk != null ? chunk[cell - first] : QTable.initialValue(boardSize, cell);
+                if (q > best) {
+                    best = q;
+                    bestCell = cell;
+                    if (chunk == null && q >= prior) break;
+                }
+            }
+        }
+        return bestCell;
+    }
+}
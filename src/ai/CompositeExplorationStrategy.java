@@ -1,34 +1,56 @@
 package ai;
 
+import model.Board;
 import model.Coordinates;
+import model.ShotSet;
 import java.util.*;
 
 public class CompositeExplorationStrategy extends ExplorationStrategy {
     private final List<ExplorationStrategy> strategies;
-    private final Random rng;
+    private final SplittableRandom rng;
     private final ExplorationConfig config;
     private double currentExplorationRate;
     private int totalMoves;
+    private ExplorationStrategy lastStrategy;
 
     public CompositeExplorationStrategy(int boardSize) {
         this(boardSize, ExplorationConfig.getDefault());
     }
 
+    public CompositeExplorationStrategy(int boardSize, int[] shipSizes, ExplorationConfig config, double explorationRate,
+                                        int totalMoves, SplittableRandom rng) {
+        this(boardSize, shipSizes, config, rng);
+        this.currentExplorationRate = explorationRate;
+        this.totalMoves = totalMoves;
+    }
+
     public CompositeExplorationStrategy(int boardSize, ExplorationConfig config) {
+        this(boardSize, Board.getShipSizes(), config, new SplittableRandom());
+    }
+
+    // every strategy draws from its own split of rng, so one seed fixes the whole exploration sequence
+    public CompositeExplorationStrategy(int boardSize, int[] shipSizes, ExplorationConfig config, SplittableRandom rng) {
         super(boardSize);
         this.strategies = new ArrayList<>();
-        this.rng = new Random();
+        this.rng = rng;
         this.config = config;
         this.currentExplorationRate = config.initialRate();
         this.totalMoves = 0;
 
-        // strategies in order of preference
-        strategies.add(new ParityExplorationStrategy(boardSize));
-        strategies.add(new RandomExplorationStrategy(boardSize));
+        // strategies in order of preference, each one only asked when the one before it has no shot
+        // the density tables grow with the square of the area, so large boards explore by parity, which covers every
+        // cell; density finds nothing once no placement fits what it saw, e.g. an opponent's answers that break the
+        // rules, and falls back to random shots
+        if (boardSize <= Board.MAX_TABLE_SIZE) {
+            strategies.add(new DensityExplorationStrategy(boardSize, shipSizes));
+            strategies.add(new RandomExplorationStrategy(boardSize, rng.split()));
+        } else {
+            strategies.add(new ParityExplorationStrategy(boardSize, rng.split()));
+        }
     }
 
     @Override
-    public Coordinates getExplorationShot(Set<Coordinates> shotsFired, double[][] stateActionValues) {
+    public Coordinates getExplorationShot(ShotSet shotsFired, QTable qTable) {
         totalMoves++;
         updateExplorationRate();
 
@@ -37,14 +59,38 @@ public class CompositeExplorationStrategy extends ExplorationStrategy {
         }
 
         for (ExplorationStrategy strategy : strategies) { // trying each strategy until getting a valid shot
-            Coordinates shot = strategy.getExplorationShot(shotsFired, stateActionValues);
+            Coordinates shot = strategy.getExplorationShot(shotsFired, qTable);
             if (shot != null) {
+                lastStrategy = strategy;
                 return shot;
             }
         }
         return null;
     }
 
+    @Override
+    public ShotSource getShotSource() {
+        return lastStrategy != null ? lastStrategy.getShotSource() : ShotSource.RANDOM;
+    }
+
+    @Override
+    public void onShotResult(Coordinates shot, String result) {
+        for (ExplorationStrategy strategy : strategies) {
+            strategy.onShotResult(shot, result);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (ExplorationStrategy strategy : strategies) {
+            strategy.reset();
+        }
+    }
+
+    public ExplorationConfig getConfig() { return config; }
+    public double getCurrentExplorationRate() { return currentExplorationRate; }
+    public int getTotalMoves() { return totalMoves; }
+
     private void updateExplorationRate() {
         if (totalMoves % config.decayInterval() == 0) {
             currentExplorationRate = Math.max(
@@ -0,0 +1,97 @@
+package ai;
+
+import model.ShotSet;
+
+// flat values plus running row and column prefix sums, kept current on every write, so a window sum along a line is
+// two lookups; a write costs one pass over the rest of its row and column
+class DenseQTable implements QTable {
+    private final int boardSize;
+    private final double[] values;
+    private final double[] rowPrefix;    // row r, cells 0..c-1 summed at r * (boardSize + 1) + c
+    private final double[] columnPrefix; // column c, rows 0..r-1 summed at c * (boardSize + 1) + r
+
+    DenseQTable(int boardSize) {
+        this.boardSize = boardSize;
+        this.values = new double[boardSize * boardSize];
+        this.rowPrefix = new double[boardSize * (boardSize + 1)];
+        this.columnPrefix = new double[boardSize * (boardSize + 1)];
+        for (int cell = 0; cell < values.length; cell++) {
+            values[cell] = QTable.initialValue(boardSize, cell);
+        }
+        rebuildPrefixes();
+    }
+
+    private void rebuildPrefixes() {
+        int stride = boardSize + 1;
+        for (int row = 0; row < boardSize; row++) {
+            for (int col = 0; col < boardSize; col++) {
+                double q = values[row * boardSize + col];
+                rowPrefix[row * stride + col + 1] = rowPrefix[row * stride + col] + q;
+                columnPrefix[col * stride + row + 1] = columnPrefix[col * stride + row] + q;
+            }
+        }
+    }
+
+    @Override
+    public int boardSize() { return boardSize; }
+
+    @Override
+    public double get(int cell) {
+        return values[cell];
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        double delta = value - values[cell];
+        values[cell] = value;
+
+        int row = cell / boardSize;
+        int col = cell % boardSize;
+        int stride = boardSize + 1;
+        for (int i = row * stride + col + 1; i <= row * stride + boardSize; i++) {
+            rowPrefix[i] += delta;
+        }
+        for (int i = col * stride + row + 1; i <= col * stride + boardSize; i++) {
+            columnPrefix[i] += delta;
+        }
+    }
+
+    @Override
+    public void load(double[] values) {
+        System.arraycopy(values, 0, this.values, 0, this.values.length);
+        rebuildPrefixes();
+    }
+
+    @Override
+    public double rowSum(int row, int fromCol, int toCol) {
+        int base = row * (boardSize + 1);
+        return rowPrefix[base + toCol + 1] - rowPrefix[base + fromCol];
+    }
+
+    @Override
+    public double columnSum(int col, int fromRow, int toRow) {
+        int base = col * (boardSize + 1);
+        return columnPrefix[base + toRow + 1] - columnPrefix[base + fromRow];
+    }
+
+    // walks the shot mask a word at a time and reads the flat array directly, skipping fully shot stretches
+    @Override
+    public int bestUnshot(ShotSet shotsFired) {
+        double best = Double.NEGATIVE_INFINITY;
+        int bestCell = -1;
+        for (int word = 0; word < shotsFired.wordCount(); word++) {
+            int base = word << 6;
+            long unshot = ~shotsFired.word(word);
+            if (base + 64 > values.length) unshot &= -1L >>> (base + 64 - values.length);
+            while (unshot != 0) {
+                int cell = base + Long.numberOfTrailingZeros(unshot);
+                unshot &= unshot - 1;
+                if (values[cell] > best) {
+                    best = values[cell];
+                    bestCell = cell;
+                }
+            }
+        }
+        return bestCell;
+    }
+}
@@ -0,0 +1,180 @@
+package ai;
+
+import model.CellMask;
+import model.Coordinates;
+import model.ShipPlacements;
+import model.ShotSet;
+
+import java.util.Arrays;
+
+public class DensityExplorationStrategy extends ExplorationStrategy {
+    // a placement through an open hit is far likelier than one through open water, it counts this much more per hit
+    private static final int HIT_WEIGHT = 20;
+
+    private final ShipPlacements[] placements; // one entry per distinct ship size
+    private final int[] fleetCounts;
+    private final int[] remainingShips;
+    private final int[][] initialCoverage;
+
+    // coverage[k][cell] = live placements of ship size k that cover the cell
+    private final int[][] coverage;
+    // hitCoverage[k][cell] = open hits on the live placements of ship size k that cover the cell
+    private final int[][] hitCoverage;
+    private final int[][] placementHits; // open hits per placement
+    private final boolean[][] alive;
+    private final CellMask blocked;
+    private final CellMask openHits;
+    private final int[] clusterStack;
+
+    public DensityExplorationStrategy(int boardSize, int[] shipSizes) {
+        super(boardSize);
+        int[] sizes = Arrays.stream(shipSizes).distinct().sorted().toArray();
+        int cells = boardSize * boardSize;
+
+        this.placements = new ShipPlacements[sizes.length];
+        this.fleetCounts = new int[sizes.length];
+        this.remainingShips = new int[sizes.length];
+        this.initialCoverage = new int[sizes.length][cells];
+        this.coverage = new int[sizes.length][cells];
+        this.hitCoverage = new int[sizes.length][cells];
+        this.placementHits = new int[sizes.length][];
+        this.alive = new boolean[sizes.length][];
+        this.blocked = new CellMask(cells);
+        this.openHits = new CellMask(cells);
+        this.clusterStack = new int[cells];
+
+        for (int k = 0; k < sizes.length; k++) {
+            placements[k] = ShipPlacements.of(boardSize, sizes[k]);
+            alive[k] = new boolean[placements[k].count()];
+            placementHits[k] = new int[placements[k].count()];
+            for (int size : shipSizes) {
+                if (size == sizes[k]) fleetCounts[k]++;
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                initialCoverage[k][cell] = placements[k].covering(cell).length;
+            }
+        }
+        reset();
+    }
+
+    @Override
+    public ShotSource getShotSource() {
+        return ShotSource.DENSITY;
+    }
+
+    @Override
+    public Coordinates getExplorationShot(ShotSet shotsFired, QTable qTable) {
+        int bestCell = -1;
+        long bestDensity = 0;
+
+        for (int cell = shotsFired.nextUnshot(0); cell >= 0; cell = shotsFired.nextUnshot(cell + 1)) {
+            long density = 0;
+            for (int k = 0; k < placements.length; k++) {
+                density += (long) remainingShips[k] * (coverage[k][cell] + HIT_WEIGHT * hitCoverage[k][cell]);
+            }
+            if (density > bestDensity) {
+                bestDensity = density;
+                bestCell = cell;
+            }
+        }
+        return bestCell >= 0 ? Coordinates.ofIndex(bestCell, boardSize) : null;
+    }
+
+    @Override
+    public void onShotResult(Coordinates shot, String result) {
+        int cell = shot.index(boardSize);
+        switch (result) {
+            case "hit" -> addOpenHit(cell);
+            case "hit and sunk", "last ship sunk" -> {
+                openHits.set(cell);
+                handleSunkShip(cell);
+            }
+            default -> block(cell); // miss
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int k = 0; k < placements.length; k++) {
+            Arrays.fill(alive[k], true);
+            System.arraycopy(initialCoverage[k], 0, coverage[k], 0, coverage[k].length);
+            Arrays.fill(hitCoverage[k], 0);
+            Arrays.fill(placementHits[k], 0);
+            remainingShips[k] = fleetCounts[k];
+        }
+        blocked.clear();
+        openHits.clear();
+    }
+
+    private void handleSunkShip(int cell) {
+        // ships never touch, so the hits connected to the sinking shot are exactly the sunk ship
+        int shipSize = 0;
+        int top = 0;
+        clusterStack[top++] = cell;
+        openHits.clear(cell);
+
+        while (top > 0) {
+            int current = clusterStack[--top];
+            shipSize++;
+            int row = current / boardSize;
+            int col = current % boardSize;
+
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    int newRow = row + i;
+                    int newCol = col + j;
+                    if (newRow < 0 || newRow >= boardSize || newCol < 0 || newCol >= boardSize) continue;
+
+                    int neighbour = newRow * boardSize + newCol;
+                    block(neighbour); // no-touch rule
+                    if (openHits.get(neighbour)) {
+                        openHits.clear(neighbour);
+                        clusterStack[top++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        for (int k = 0; k < placements.length; k++) {
+            if (placements[k].shipSize() == shipSize && remainingShips[k] > 0) {
+                remainingShips[k]--;
+            }
+        }
+    }
+
+    // a hit stays open, not blocked: the placements through it are the likeliest ones and gain weight on their cells
+    private void addOpenHit(int cell) {
+        if (openHits.get(cell)) return;
+        openHits.set(cell);
+
+        for (int k = 0; k < placements.length; k++) {
+            for (int placement : placements[k].covering(cell)) {
+                if (!alive[k][placement]) continue;
+                placementHits[k][placement]++;
+                for (int covered : placements[k].cells(placement)) {
+                    hitCoverage[k][covered]++;
+                }
+            }
+        }
+    }
+
+    // misses and sunk ships with their borders; the sunk ship's own cells are blocked here too, so its open hits
+    // leave the weights along with the placements through them
+    private void block(int cell) {
+        if (blocked.get(cell)) return;
+        blocked.set(cell);
+
+        // every live placement through this cell dies and stops counting towards its cells
+        for (int k = 0; k < placements.length; k++) {
+            for (int placement : placements[k].covering(cell)) {
+                if (!alive[k][placement]) continue;
+                alive[k][placement] = false;
+                int hits = placementHits[k][placement];
+                for (int covered : placements[k].cells(placement)) {
+                    coverage[k][covered]--;
+                    hitCoverage[k][covered] -= hits;
+                }
+            }
+        }
+    }
+}
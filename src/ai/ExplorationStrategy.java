@@ -1,7 +1,7 @@
 package ai;
 
 import model.Coordinates;
-import java.util.Set;
+import model.ShotSet;
 
 public abstract class ExplorationStrategy {
     protected final int boardSize;
@@ -10,6 +10,15 @@ public abstract class ExplorationStrategy {
         this.boardSize = boardSize;
     }
 
-    public abstract Coordinates getExplorationShot(Set<Coordinates> shotsFired, double[][] stateActionValues);
+    public abstract Coordinates getExplorationShot(ShotSet shotsFired, QTable qTable);
+
+    // what produced the last shot this strategy returned
+    public abstract ShotSource getShotSource();
+
+    // called with the result of every shot the agent fires, not only the ones this strategy proposed
+    public void onShotResult(Coordinates shot, String result) {}
+
+    // called when the agent starts a new game
+    public void reset() {}
 
 }
\ No newline at end of file
@@ -1,27 +1,50 @@
 package ai;
 
+import model.CellMask;
 import model.Coordinates;
-import java.util.*;
+import model.ShotSet;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public class ParityExplorationStrategy extends ExplorationStrategy {
-    private final Random rng;
+    private final RandomGenerator rng;
+    private final CellMask evenCells;
+    private final CellMask oddCells;
     private int totalMoves;
 
     public ParityExplorationStrategy(int boardSize) {
+        this(boardSize, new SplittableRandom());
+    }
+
+    public ParityExplorationStrategy(int boardSize, RandomGenerator rng) {
         super(boardSize);
-        this.rng = new Random();
+        this.rng = rng;
+        this.evenCells = new CellMask(boardSize * boardSize);
+        this.oddCells = new CellMask(boardSize * boardSize);
         this.totalMoves = 0;
+
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
+                (((i + j) % 2 == 0) ? evenCells : oddCells).set(i * boardSize + j);
+            }
+        }
     }
 
     @Override
-    public Coordinates getExplorationShot(Set<Coordinates> shotsFired, double[][] stateActionValues) {
+    public ShotSource getShotSource() {
+        return ShotSource.PARITY;
+    }
+
+    @Override
+    public Coordinates getExplorationShot(ShotSet shotsFired, QTable qTable) {
         totalMoves++;
 
         // first try to get a position following the checkerboard pattern
         return getParityBasedShot(shotsFired); // if no parity shots available, return null to let other strategies handle it
     }
 
-    private Coordinates getParityBasedShot(Set<Coordinates> shotsFired) {
+    private Coordinates getParityBasedShot(ShotSet shotsFired) {
         // calculate current optimal parity based on moves
         boolean preferredParity = (totalMoves % 2 == 0);
 
@@ -31,19 +54,8 @@ public class ParityExplorationStrategy extends ExplorationStrategy {
         return getParityShotWithPreference(shotsFired, !preferredParity);
     }
 
-    private Coordinates getParityShotWithPreference(Set<Coordinates> shotsFired, boolean parity) {
-        List<Coordinates> validShots = new ArrayList<>();
-
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Coordinates pos = new Coordinates(i, j);
-                if (!shotsFired.contains(pos) && ((i + j) % 2 == (parity ? 0 : 1))) {
-                    validShots.add(pos);
-                }
-            }
-        }
-
-        if (!validShots.isEmpty()) return validShots.get(rng.nextInt(validShots.size()));
-        return null;
+    private Coordinates getParityShotWithPreference(ShotSet shotsFired, boolean parity) {
+        int cell = shotsFired.randomUnshot(rng, parity ? evenCells : oddCells);
+        return cell >= 0 ? Coordinates.ofIndex(cell, boardSize) : null;
     }
 }
\ No newline at end of file
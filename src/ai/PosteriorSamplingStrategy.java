@@ -0,0 +1,312 @@
+package ai;
+
+import model.CellMask;
+import model.Coordinates;
+import model.ShipPlacements;
+import model.ShotSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+// samples full fleet layouts consistent with every observed shot and fires at the most occupied cell
+public class PosteriorSamplingStrategy extends ExplorationStrategy {
+    private static final int PLACEMENT_ATTEMPTS = 20;
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final int[] fleetCounts; // indexed by ship size
+    private final int[] remainingBySize;
+    private final ShipPlacements[] placementsBySize;
+    private final SplittableRandom rng;
+
+    private final CellMask forbidden; // misses, sunk ships and their borders
+    private final CellMask openHits;
+    private final int[] clusterStack;
+
+    private long totalSamples;
+    private long totalNanos;
+
+    public PosteriorSamplingStrategy(int boardSize, int[] shipSizes, long budgetMillis) {
+        this(boardSize, shipSizes, budgetMillis, ForkJoinPool.commonPool());
+    }
+
+    public PosteriorSamplingStrategy(int boardSize, int[] shipSizes, long budgetMillis, SplittableRandom rng) {
+        this(boardSize, shipSizes, budgetMillis, ForkJoinPool.commonPool(), rng);
+    }
+
+    public PosteriorSamplingStrategy(int boardSize, int[] shipSizes, long budgetMillis, ForkJoinPool pool) {
+        this(boardSize, shipSizes, budgetMillis, pool, new SplittableRandom());
+    }
+
+    // each sampler task gets its own split of rng; the time budget still decides how many layouts are drawn
+    public PosteriorSamplingStrategy(int boardSize, int[] shipSizes, long budgetMillis, ForkJoinPool pool,
+                                     SplittableRandom rng) {
+        super(boardSize);
+        this.pool = pool;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        int maxSize = Arrays.stream(shipSizes).max().orElse(0);
+        this.fleetCounts = new int[maxSize + 1];
+        this.remainingBySize = new int[maxSize + 1];
+        this.placementsBySize = new ShipPlacements[maxSize + 1];
+        this.rng = rng;
+        this.forbidden = new CellMask(boardSize * boardSize);
+        this.openHits = new CellMask(boardSize * boardSize);
+        this.clusterStack = new int[boardSize * boardSize];
+
+        for (int size : shipSizes) {
+            fleetCounts[size]++;
+            placementsBySize[size] = ShipPlacements.of(boardSize, size);
+        }
+        reset();
+    }
+
+    @Override
+    public ShotSource getShotSource() {
+        return ShotSource.POSTERIOR;
+    }
+
+    @Override
+    public Coordinates getExplorationShot(ShotSet shotsFired, QTable qTable) {
+        int[] fleet = remainingFleet();
+        int[] hitCells = cellsOf(openHits);
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        List<Sampler> samplers = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            samplers.add(new Sampler(fleet, hitCells, deadline, rng.split()));
+        }
+
+        int[] counts = new int[boardSize * boardSize];
+        long samples = 0;
+        for (Future<Sampler> future : pool.invokeAll(samplers)) {
+            Sampler sampler = join(future);
+            samples += sampler.accepted;
+            for (int cell = 0; cell < counts.length; cell++) {
+                counts[cell] += sampler.counts[cell];
+            }
+        }
+        totalSamples += samples;
+        totalNanos += System.nanoTime() - start;
+
+        int bestCell = -1;
+        for (int cell = shotsFired.nextUnshot(0); cell >= 0; cell = shotsFired.nextUnshot(cell + 1)) {
+            if (counts[cell] > 0 && (bestCell < 0 || counts[cell] > counts[bestCell])) {
+                bestCell = cell;
+            }
+        }
+        return bestCell >= 0 ? Coordinates.ofIndex(bestCell, boardSize) : null;
+    }
+
+    @Override
+    public void onShotResult(Coordinates shot, String result) {
+        int cell = shot.index(boardSize);
+        switch (result) {
+            case "hit" -> openHits.set(cell);
+            case "hit and sunk", "last ship sunk" -> {
+                openHits.set(cell);
+                handleSunkShip(cell);
+            }
+            default -> forbidden.set(cell); // miss
+        }
+    }
+
+    @Override
+    public void reset() {
+        System.arraycopy(fleetCounts, 0, remainingBySize, 0, fleetCounts.length);
+        forbidden.clear();
+        openHits.clear();
+    }
+
+    public double getSamplesPerSecond() {
+        return totalNanos > 0 ? totalSamples * 1e9 / totalNanos : 0;
+    }
+
+    public long getTotalSamples() { return totalSamples; }
+    public long getTotalNanos() { return totalNanos; }
+
+    private void handleSunkShip(int cell) {
+        // ships never touch, so the hits connected to the sinking shot are exactly the sunk ship
+        int shipSize = 0;
+        int top = 0;
+        clusterStack[top++] = cell;
+        openHits.clear(cell);
+
+        while (top > 0) {
+            int current = clusterStack[--top];
+            shipSize++;
+            int row = current / boardSize;
+            int col = current % boardSize;
+
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    int newRow = row + i;
+                    int newCol = col + j;
+                    if (newRow < 0 || newRow >= boardSize || newCol < 0 || newCol >= boardSize) continue;
+
+                    int neighbour = newRow * boardSize + newCol;
+                    forbidden.set(neighbour);
+                    if (openHits.get(neighbour)) {
+                        openHits.clear(neighbour);
+                        clusterStack[top++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        if (shipSize < remainingBySize.length && remainingBySize[shipSize] > 0) {
+            remainingBySize[shipSize]--;
+        }
+    }
+
+    private int[] remainingFleet() {
+        int count = 0;
+        for (int remaining : remainingBySize) count += remaining;
+
+        int[] fleet = new int[count];
+        int i = 0;
+        for (int size = remainingBySize.length - 1; size > 0; size--) { // largest ships first
+            for (int j = 0; j < remainingBySize[size]; j++) fleet[i++] = size;
+        }
+        return fleet;
+    }
+
+    private static int[] cellsOf(CellMask mask) {
+        int[] cells = new int[mask.cardinality()];
+        int i = 0;
+        for (int cell = mask.nextSetBit(0); cell >= 0; cell = mask.nextSetBit(cell + 1)) {
+            cells[i++] = cell;
+        }
+        return cells;
+    }
+
+    private static Sampler join(Future<Sampler> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sampling interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sampling failed", e.getCause());
+        }
+    }
+
+    // one worker: draws layouts until the deadline and counts how often each cell is occupied
+    private class Sampler implements Callable<Sampler> {
+        private final int[] fleet;
+        private final int[] hitCells;
+        private final long deadline;
+        private final SplittableRandom random;
+        private final CellMask shipCells;
+        private final CellMask halo;
+        private final boolean[] placed;
+        private final int[] counts;
+        private long accepted;
+
+        Sampler(int[] fleet, int[] hitCells, long deadline, SplittableRandom random) {
+            this.fleet = fleet;
+            this.hitCells = hitCells;
+            this.deadline = deadline;
+            this.random = random;
+            this.shipCells = new CellMask(boardSize * boardSize);
+            this.halo = new CellMask(boardSize * boardSize);
+            this.placed = new boolean[fleet.length];
+            this.counts = new int[boardSize * boardSize];
+        }
+
+        @Override
+        public Sampler call() {
+            // anytime: always finish at least one attempt, then keep going until the budget is spent
+            do {
+                if (sampleLayout()) {
+                    accepted++;
+                    for (int cell = shipCells.nextSetBit(0); cell >= 0; cell = shipCells.nextSetBit(cell + 1)) {
+                        counts[cell]++;
+                    }
+                }
+            } while (System.nanoTime() < deadline);
+            return this;
+        }
+
+        private boolean sampleLayout() {
+            shipCells.clear();
+            halo.clear();
+            Arrays.fill(placed, false);
+
+            // first explain every open hit with some ship covering it
+            for (int hit : hitCells) {
+                if (shipCells.get(hit)) continue;
+                if (halo.get(hit) || !coverHit(hit)) return false;
+            }
+
+            // then drop the rest of the fleet anywhere it still fits
+            for (int i = 0; i < fleet.length; i++) {
+                if (!placed[i] && !placeAnywhere(i)) return false;
+            }
+            return true;
+        }
+
+        private boolean coverHit(int hit) {
+            for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+                int ship = random.nextInt(fleet.length);
+                if (placed[ship]) continue;
+
+                int[] covering = placementsBySize[fleet[ship]].covering(hit);
+                if (covering.length == 0) continue;
+
+                // a ship lying on open hits alone would already have been reported sunk
+                int[] cells = placementsBySize[fleet[ship]].cells(covering[random.nextInt(covering.length)]);
+                if (fits(cells) && countOpenHits(cells) < cells.length) {
+                    place(ship, cells);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean placeAnywhere(int ship) {
+            ShipPlacements placements = placementsBySize[fleet[ship]];
+            for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+                // the open hits were all explained by coverHit, the rest of the fleet stays clear of them
+                int[] cells = placements.cells(random.nextInt(placements.count()));
+                if (fits(cells) && countOpenHits(cells) == 0) {
+                    place(ship, cells);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean fits(int[] cells) {
+            for (int cell : cells) {
+                if (forbidden.get(cell) || halo.get(cell)) return false;
+            }
+            return true;
+        }
+
+        private int countOpenHits(int[] cells) {
+            int count = 0;
+            for (int cell : cells) {
+                if (openHits.get(cell)) count++;
+            }
+            return count;
+        }
+
+        private void place(int ship, int[] cells) {
+            placed[ship] = true;
+            for (int cell : cells) {
+                shipCells.set(cell);
+                int row = cell / boardSize;
+                int col = cell % boardSize;
+                for (int i = Math.max(0, row - 1); i <= Math.min(boardSize - 1, row + 1); i++) {
+                    for (int j = Math.max(0, col - 1); j <= Math.min(boardSize - 1, col + 1); j++) {
+                        halo.set(i * boardSize + j);
+                    }
+                }
+            }
+        }
+    }
+}
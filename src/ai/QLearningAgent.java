@@ -1,90 +1,201 @@
 package ai;
 
+import model.Board;
 import model.Coordinates;
-import java.util.*;
-
-public class QLearningAgent {
-    private final double[][] stateActionValues;
-    private final Set<Coordinates> shotsFired;
+import model.Shooter;
+import model.ShotSet;
+import telemetry.DecisionEvent;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class QLearningAgent implements Shooter {
+    private final int boardSize;
+    private final int[] shipSizes; // windows the lookahead in getMaxFutureQValue averages over
+    private final QTable qTable;
+    private final ShotSet shotsFired;
     private final CompositeExplorationStrategy explorationStrategy;
+    private final ExplorationStrategy targetingStrategy; // optional, replaces the neighbour heuristic while a ship is hit
     private Coordinates lastShot;
+    private ShotSource lastShotSource;
 
-    private final List<Coordinates> currentShipHits;
-    private final PriorityQueue<Target> potentialTargets;
+    // the turn path allocates nothing: hits and candidate targets live in preallocated primitive arrays
+    private final int[] currentShipHits; // cells hit on the ship being chased
+    private int currentShipHitCount;
+    private final TargetQueue potentialTargets;
     private final double learningRate;
     private final double discountFactor;
 
-    private static final int BOARD_SIZE = 10;
-    private static final int[] SHIP_SIZES = {5, 4, 3, 3, 2};
+    private static final int[] STANDARD_WINDOWS = {5, 4, 3, 2};
+    private static final double MAX_REWARD = 3.0;
+    private static final double MISS_REWARD = -0.1;
+    // a sunk ship says little about far-off water: the orientation boost stays this close to it, which covers every
+    // board that still has placement tables and keeps a chunked Q table sparse on the larger ones
+    private static final int BOOST_RADIUS = Board.MAX_TABLE_SIZE;
 
     public QLearningAgent() {
-        this.stateActionValues = new double[BOARD_SIZE][BOARD_SIZE];
-        this.shotsFired = new HashSet<>();
-        this.currentShipHits = new ArrayList<>();
-        this.potentialTargets = new PriorityQueue<>();
-        this.explorationStrategy = new CompositeExplorationStrategy(BOARD_SIZE);
-        this.learningRate = 0.1;
-        this.discountFactor = 0.9;
+        this(null);
+    }
 
-        initializeQValues();
+    public QLearningAgent(ExplorationStrategy targetingStrategy) {
+        this(AgentConfig.getDefault(), targetingStrategy);
     }
 
-    private void initializeQValues() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                stateActionValues[i][j] = (i + j) % 2 == 0 ? 0.1 : 0.0;
-            }
+    public QLearningAgent(AgentConfig config, ExplorationStrategy targetingStrategy) {
+        this(Board.DEFAULT_SIZE, Board.getShipSizes(), config, targetingStrategy, new SplittableRandom());
+    }
+
+    public QLearningAgent(int boardSize, int[] fleet, AgentConfig config, ExplorationStrategy targetingStrategy,
+                          SplittableRandom rng) {
+        this(QTable.create(boardSize), fleet, config, targetingStrategy, rng);
+    }
+
+    // plays on the given table, which may be shared with agents on other threads (see QTable.shared)
+    public QLearningAgent(QTable qTable, int[] fleet, AgentConfig config, ExplorationStrategy targetingStrategy,
+                          SplittableRandom rng) {
+        this(qTable, fleet, config.learningRate(), config.discountFactor(), targetingStrategy,
+                new CompositeExplorationStrategy(qTable.boardSize(), fleet, config.exploration(), rng));
+    }
+
+    // resumes from previously learned state, e.g. one loaded through QTableStore
+    public QLearningAgent(AgentSnapshot snapshot, ExplorationStrategy targetingStrategy) {
+        this(snapshot, Board.getShipSizes(), targetingStrategy, new SplittableRandom());
+    }
+
+    public QLearningAgent(AgentSnapshot snapshot, int[] fleet, ExplorationStrategy targetingStrategy, SplittableRandom rng) {
+        this(snapshot, loadTable(snapshot), fleet, targetingStrategy, rng);
+    }
+
+    // resumes the snapshot's settings and exploration progress on a table that already holds its values
+    public QLearningAgent(AgentSnapshot snapshot, QTable qTable, int[] fleet, ExplorationStrategy targetingStrategy,
+                          SplittableRandom rng) {
+        this(qTable, fleet, snapshot.learningRate(), snapshot.discountFactor(), targetingStrategy,
+                new CompositeExplorationStrategy(qTable.boardSize(), fleet, snapshot.explorationConfig(),
+                        snapshot.explorationRate(), (int) Math.min(Integer.MAX_VALUE, snapshot.explorationMoves()), rng));
+    }
+
+    private QLearningAgent(QTable qTable, int[] fleet, double learningRate, double discountFactor,
+                           ExplorationStrategy targetingStrategy, CompositeExplorationStrategy explorationStrategy) {
+        this.boardSize = qTable.boardSize();
+        this.shipSizes = lookaheadWindows(fleet);
+        this.targetingStrategy = targetingStrategy;
+        this.qTable = qTable;
+        this.shotsFired = new ShotSet(boardSize);
+        this.currentShipHits = new int[Arrays.stream(fleet).sum()];
+        this.potentialTargets = new TargetQueue(4 * boardSize);
+        this.explorationStrategy = explorationStrategy;
+        this.learningRate = learningRate;
+        this.discountFactor = discountFactor;
+    }
+
+    // the distinct ship sizes of the fleet; the standard fleet keeps the windows the agent has always learned with,
+    // so tables trained before the fleet became configurable carry on as they were
+    private static int[] lookaheadWindows(int[] fleet) {
+        if (Arrays.equals(fleet, Board.getShipSizes())) return STANDARD_WINDOWS.clone();
+        return Arrays.stream(fleet).distinct().toArray();
+    }
+
+    private static QTable loadTable(AgentSnapshot snapshot) {
+        QTable qTable = QTable.create(snapshot.boardSize());
+        qTable.load(snapshot.qValues());
+        return qTable;
+    }
+
+    // safe to call from another thread while the agent plays, the copy may mix values from consecutive updates
+    public AgentSnapshot snapshot() {
+        double[] qValues = new double[boardSize * boardSize];
+        for (int cell = 0; cell < qValues.length; cell++) {
+            qValues[cell] = qTable.get(cell);
         }
+        return new AgentSnapshot(boardSize, learningRate, discountFactor, explorationStrategy.getConfig(),
+                explorationStrategy.getCurrentExplorationRate(), explorationStrategy.getTotalMoves(), qValues);
     }
 
+    public int getBoardSize() { return boardSize; }
+
+    @Override
+    public void startNewGame() {
+        // q-values and exploration progress carry over, only the per-game state is reset
+        shotsFired.clear();
+        currentShipHitCount = 0;
+        potentialTargets.clear();
+        explorationStrategy.reset();
+        if (targetingStrategy != null) targetingStrategy.reset();
+        lastShot = null;
+        lastShotSource = null;
+    }
+
+    @Override
     public Coordinates getNextShot() {
+        DecisionEvent event = new DecisionEvent();
+        event.begin();
+        Coordinates shot = chooseShot();
+        if (event.shouldCommit()) {
+            event.target = shot != null ? shot.toString() : null;
+            event.source = shot != null ? lastShotSource.name() : null;
+            event.explorationRate = explorationStrategy.getCurrentExplorationRate();
+            event.commit();
+        }
+        return shot;
+    }
+
+    private Coordinates chooseShot() {
+        if (targetingStrategy != null && currentShipHitCount > 0) {
+            Coordinates targetShot = targetingStrategy.getExplorationShot(shotsFired, qTable);
+            if (targetShot != null) return executeShot(targetShot, targetingStrategy.getShotSource());
+        }
+
         // check high-probability targets from previous hits
-        if (!potentialTargets.isEmpty()) {
-            Target bestTarget = null;
-            while (!potentialTargets.isEmpty() && bestTarget == null) {
-                Target candidate = potentialTargets.poll();
-                if (!shotsFired.contains(candidate.coordinates)) {
-                    bestTarget = candidate;
-                }
-            }
-            if (bestTarget != null) {
-                return executeShot(bestTarget.coordinates);
+        while (!potentialTargets.isEmpty()) {
+            int candidate = potentialTargets.poll();
+            if (!shotsFired.contains(candidate)) {
+                return executeShot(Coordinates.ofIndex(candidate, boardSize), ShotSource.NEIGHBOUR);
             }
         }
 
         // use exploration strategy
-        Coordinates explorationShot = explorationStrategy.getExplorationShot(shotsFired, stateActionValues);
-        if (explorationShot != null) return executeShot(explorationShot);
-        else return executeShot(getBestQValuePosition()); // fall back to best Q-value
+        Coordinates explorationShot = explorationStrategy.getExplorationShot(shotsFired, qTable);
+        if (explorationShot != null) return executeShot(explorationShot, explorationStrategy.getShotSource());
+        else return executeShot(getBestQValuePosition(), ShotSource.Q_VALUE); // fall back to best Q-value
+    }
+
+    // which part of the agent chose the shot last returned by getNextShot
+    public ShotSource getLastShotSource() {
+        return lastShotSource;
     }
 
-    private Coordinates executeShot(Coordinates shot) {
+    private Coordinates executeShot(Coordinates shot, ShotSource source) {
         if (shot != null) {
             lastShot = shot;
+            lastShotSource = source;
             shotsFired.add(shot);
         }
         return shot;
     }
 
     private Coordinates getBestQValuePosition() {
-        double maxQ = Double.NEGATIVE_INFINITY;
-        Coordinates bestPos = null;
-
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Coordinates pos = new Coordinates(i, j);
-                if (!shotsFired.contains(pos) && stateActionValues[i][j] > maxQ) {
-                    maxQ = stateActionValues[i][j];
-                    bestPos = pos;
-                }
-            }
-        }
-        return bestPos;
+        int cell = qTable.bestUnshot(shotsFired);
+        return cell >= 0 ? Coordinates.ofIndex(cell, boardSize) : null;
     }
 
+    @Override
     public void updateFromResult(String result) {
         if (lastShot == null) return;
 
+        learn(result);
+        explorationStrategy.onShotResult(lastShot, result);
+        if (targetingStrategy != null) targetingStrategy.onShotResult(lastShot, result);
+    }
+
+    // learns from a shot the agent did not choose, e.g. one read back from the game journal;
+    // the Q updates are the same as for its own shots, the exploration strategies are left alone
+    public void observe(Coordinates shot, String result) {
+        lastShot = shot;
+        shotsFired.add(shot);
+        learn(result);
+    }
+
+    private void learn(String result) {
         double reward = switch(result) {
             case "hit" -> {
                 handleHit(lastShot);
@@ -96,25 +207,21 @@ public class QLearningAgent {
             }
             case "last ship sunk" -> {
                 handleSunkShip(lastShot);
-                yield 3.0;
+                yield MAX_REWARD;
             }
-            default -> -0.1; // miss
+            default -> MISS_REWARD; // miss
         };
         updateQValue(lastShot, reward);
     }
 
     private void updateQValue(Coordinates action, double reward) {
-        int row = action.getRow();
-        int col = action.getCol();
-
-        double maxFutureQ = getMaxFutureQValue(row, col);
-        stateActionValues[row][col] += learningRate *
-                (reward + discountFactor * maxFutureQ - stateActionValues[row][col]);
+        double maxFutureQ = getMaxFutureQValue(action.getRow(), action.getCol());
+        qTable.update(action.index(boardSize), learningRate, reward + discountFactor * maxFutureQ);
     }
 
     private double getMaxFutureQValue(int row, int col) {
         double maxQ = 0;
-        for (int shipSize : SHIP_SIZES) {
+        for (int shipSize : shipSizes) {
             // Check horizontal possibility
             maxQ = Math.max(maxQ, getDirectionalQValue(row, col, shipSize, true));
             // Check vertical possibility
@@ -123,65 +230,78 @@ public class QLearningAgent {
         return maxQ;
     }
 
+    // mean value of the cells a ship of this size could cover through (row, col), read from the table's line sums
     private double getDirectionalQValue(int row, int col, int shipSize, boolean horizontal) {
-        double sum = 0;
-        int count = 0;
-
-        for (int offset = -shipSize + 1; offset < shipSize; offset++) {
-            int checkRow = horizontal ? row : row + offset;
-            int checkCol = horizontal ? col + offset : col;
-
-            if (checkRow >= 0 && checkRow < BOARD_SIZE &&
-                    checkCol >= 0 && checkCol < BOARD_SIZE) {
-                sum += stateActionValues[checkRow][checkCol];
-                count++;
-            }
-        }
-        return count > 0 ? sum / count : 0;
+        int center = horizontal ? col : row;
+        int from = Math.max(0, center - shipSize + 1);
+        int to = Math.min(boardSize - 1, center + shipSize - 1);
+        double sum = horizontal ? qTable.rowSum(row, from, to) : qTable.columnSum(col, from, to);
+        return sum / (to - from + 1);
     }
 
     private void handleHit(Coordinates hit) {
-        currentShipHits.add(hit);
+        addShipHit(hit);
         updatePotentialTargets(hit);
     }
 
     private void handleSunkShip(Coordinates lastHit) {
-        currentShipHits.add(lastHit);
-        int shipSize = currentShipHits.size();
+        addShipHit(lastHit);
+        int shipSize = currentShipHitCount;
 
-        boolean isHorizontal = currentShipHits.stream()
-                .map(Coordinates::getRow)
-                .distinct()
-                .count() == 1;
+        boolean isHorizontal = hitsShareLine(true);
 
-        updateOrientationQValues(isHorizontal, shipSize);
-        currentShipHits.clear();
+        updateOrientationQValues(lastHit, isHorizontal, shipSize);
+        currentShipHitCount = 0;
         potentialTargets.clear();
     }
 
-    private void updateOrientationQValues(boolean isHorizontal, int shipSize) {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Coordinates pos = new Coordinates(i, j);
-                if (!shotsFired.contains(pos)) {
-                    if (canFitShip(i, j, shipSize, isHorizontal)) {
-                        stateActionValues[i][j] *= 1.2;
-                    }
+    private void addShipHit(Coordinates hit) {
+        // a journal may repeat a cell, the ship cannot be longer than the board anyway
+        if (currentShipHitCount < currentShipHits.length) currentShipHits[currentShipHitCount++] = hit.index(boardSize);
+    }
+
+    // whether every hit on the current ship lies in one row (horizontal) or one column
+    private boolean hitsShareLine(boolean horizontal) {
+        int first = horizontal ? currentShipHits[0] / boardSize : currentShipHits[0] % boardSize;
+        for (int i = 1; i < currentShipHitCount; i++) {
+            int line = horizontal ? currentShipHits[i] / boardSize : currentShipHits[i] % boardSize;
+            if (line != first) return false;
+        }
+        return true;
+    }
+
+    private void updateOrientationQValues(Coordinates sunk, boolean isHorizontal, int shipSize) {
+        int top = Math.max(0, sunk.getRow() - BOOST_RADIUS);
+        int bottom = Math.min(boardSize - 1, sunk.getRow() + BOOST_RADIUS);
+        int left = Math.max(0, sunk.getCol() - BOOST_RADIUS);
+        int right = Math.min(boardSize - 1, sunk.getCol() + BOOST_RADIUS);
+
+        for (int i = top; i <= bottom; i++) {
+            int rowEnd = i * boardSize + right + 1;
+            for (int cell = shotsFired.nextUnshot(i * boardSize + left); cell >= 0 && cell < rowEnd;
+                 cell = shotsFired.nextUnshot(cell + 1)) {
+                if (canFitShip(i, cell % boardSize, shipSize, isHorizontal)) {
+                    // kept within the reachable range, otherwise the boost compounds across games
+                    qTable.set(cell, clampQValue(qTable.get(cell) * 1.2));
                 }
             }
         }
     }
 
+    private double clampQValue(double value) {
+        return Math.max(MISS_REWARD / (1 - discountFactor), Math.min(value, MAX_REWARD / (1 - discountFactor)));
+    }
+
     private boolean canFitShip(int row, int col, int size, boolean horizontal) {
         if (horizontal) {
-            if (col + size > BOARD_SIZE) return false;
+            if (col + size > boardSize) return false;
             for (int j = col; j < col + size; j++) {
-                if (shotsFired.contains(new Coordinates(row, j))) return false;
+                if (shotsFired.contains(row * boardSize + j)) return false;
             }
         } else {
-            if (row + size > BOARD_SIZE) return false;
+            if (row + size > boardSize) return false;
             for (int i = row; i < row + size; i++) {
-                if (shotsFired.contains(new Coordinates(i, col))) return false;
+                if (shotsFired.contains(i * boardSize + col)) return false;
             }
         }
         return true;
@@ -203,28 +323,18 @@ public class QLearningAgent {
     }
 
     private Direction calculateDirection() {
-        if (currentShipHits.size() < 2) return Direction.UNKNOWN;
-
-        boolean sameRow = currentShipHits.stream()
-                .map(Coordinates::getRow)
-                .distinct()
-                .count() == 1;
-
-        boolean sameCol = currentShipHits.stream()
-                .map(Coordinates::getCol)
-                .distinct()
-                .count() == 1;
+        if (currentShipHitCount < 2) return Direction.UNKNOWN;
 
-        if (sameRow) return Direction.HORIZONTAL;
-        if (sameCol) return Direction.VERTICAL;
+        if (hitsShareLine(true)) return Direction.HORIZONTAL;
+        if (hitsShareLine(false)) return Direction.VERTICAL;
         return Direction.UNKNOWN;
     }
 
     private void addPotentialTarget(int row, int col) {
-        if (row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE) {
-            Coordinates pos = new Coordinates(row, col);
-            if (!shotsFired.contains(pos)) {
-                potentialTargets.offer(new Target(pos, stateActionValues[row][col]));
+        if (row >= 0 && row < boardSize && col >= 0 && col < boardSize) {
+            int cell = row * boardSize + col;
+            if (!shotsFired.contains(cell)) {
+                potentialTargets.offer(cell, qTable.get(cell));
             }
         }
     }
@@ -232,11 +342,4 @@ public class QLearningAgent {
     private enum Direction {
         HORIZONTAL, VERTICAL, UNKNOWN
     }
-
-    private record Target(Coordinates coordinates, double priority) implements Comparable<Target> {
-        @Override
-            public int compareTo(Target other) {
-                return Double.compare(other.priority, this.priority);
-            }
-        }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package ai;
+
+import model.ShotSet;
+
+// one q-value per cell, addressed by row-major index; the agent and its exploration strategies only see this view
+public interface QTable {
+    // boards up to this size keep a flat array, larger ones are stored in chunks allocated as cells are touched
+    int MAX_DENSE_SIZE = 256;
+
+    int boardSize();
+
+    double get(int cell);
+
+    void set(int cell, double value);
+
+    // moves a value toward target by learningRate, the one read-modify-write of the learning rule
+    default void update(int cell, double learningRate, double target) {
+        double q = get(cell);
+        set(cell, q + learningRate * (target - q));
+    }
+
+    // sum over cells fromCol..toCol of one row, both ends inclusive
+    default double rowSum(int row, int fromCol, int toCol) {
+        double sum = 0;
+        for (int cell = row * boardSize() + fromCol; cell <= row * boardSize() + toCol; cell++) {
+            sum += get(cell);
+        }
+        return sum;
+    }
+
+    // sum over cells fromRow..toRow of one column, both ends inclusive
+    default double columnSum(int col, int fromRow, int toRow) {
+        double sum = 0;
+        for (int row = fromRow; row <= toRow; row++) {
+            sum += get(row * boardSize() + col);
+        }
+        return sum;
+    }
+
+    // the unshot cell with the highest value, the lowest index on ties, -1 once every cell is shot
+    default int bestUnshot(ShotSet shotsFired) {
+        double best = Double.NEGATIVE_INFINITY;
+        int bestCell = -1;
+        for (int cell = shotsFired.nextUnshot(0); cell >= 0; cell = shotsFired.nextUnshot(cell + 1)) {
+            double q = get(cell);
+            if (q > best) {
+                best = q;
+                bestCell = cell;
+            }
+        }
+        return bestCell;
+    }
+
+    default void load(double[] values) {
+        for (int cell = 0; cell < values.length; cell++) {
+            set(cell, values[cell]);
+        }
+    }
+
+    static QTable create(int boardSize) {
+        return boardSize <= MAX_DENSE_SIZE ? new DenseQTable(boardSize) : new ChunkedQTable(boardSize);
+    }
+
+    // for agents training side by side on one policy; always dense, so limited to MAX_DENSE_SIZE
+    static QTable shared(int boardSize) {
+        if (boardSize > MAX_DENSE_SIZE) {
+            throw new IllegalArgumentException("Shared tables hold boards up to " + MAX_DENSE_SIZE + "x" + MAX_DENSE_SIZE);
+        }
+        return new SharedQTable(boardSize);
+    }
+
+    // every table starts out favouring the checkerboard cells a minimal ship must cover
+    static double initialValue(int boardSize, int cell) {
+        return (cell / boardSize + cell % boardSize) % 2 == 0 ? 0.1 : 0.0;
+    }
+}
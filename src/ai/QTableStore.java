@@ -0,0 +1,117 @@
+package ai;
+
+import model.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Binary agent file, little-endian:
+ *   int magic 'RLQT', int version, int boardSize,
+ *   double learningRate, double discountFactor,
+ *   double initialRate, double decayRate, double minRate, int decayInterval,
+ *   double explorationRate, long explorationMoves,
+ *   double[boardSize * boardSize] q-values, row-major
+ */
+public final class QTableStore {
+    private static final int MAGIC = 0x524C5154;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + 6 * Double.BYTES + Long.BYTES;
+
+    private QTableStore() {}
+
+    public static void save(AgentSnapshot snapshot, Path path) throws IOException {
+        // written next to the target and moved over it, so readers never see a half-written file
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long size = HEADER_BYTES + (long) snapshot.qValues().length * Double.BYTES;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            ExplorationConfig config = snapshot.explorationConfig();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(snapshot.boardSize())
+                    .putDouble(snapshot.learningRate()).putDouble(snapshot.discountFactor())
+                    .putDouble(config.initialRate()).putDouble(config.decayRate()).putDouble(config.minRate())
+                    .putInt(config.decayInterval())
+                    .putDouble(snapshot.explorationRate()).putLong(snapshot.explorationMoves());
+            buffer.asDoubleBuffer().put(snapshot.qValues());
+            buffer.force();
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static AgentSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Q-table file is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a Q-table file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported Q-table version " + version);
+            }
+
+            // checked before anything is sized by it, a damaged header must not allocate a huge or negative table
+            int boardSize = buffer.getInt();
+            if (boardSize < 1 || boardSize > Board.MAX_SIZE) {
+                throw new IOException("Q-table file has an invalid board size " + boardSize);
+            }
+            long expectedBytes = HEADER_BYTES + (long) boardSize * boardSize * Double.BYTES;
+            if (channel.size() != expectedBytes) {
+                throw new IOException("Q-table file is " + channel.size() + " bytes, a " + boardSize + "x" + boardSize
+                        + " table takes " + expectedBytes);
+            }
+            // nothing downstream checks these, a NaN rate would poison every update and a zero interval divide by zero
+            double learningRate = readRate(buffer, "learning rate");
+            double discountFactor = readRate(buffer, "discount factor");
+            double initialRate = readRate(buffer, "initial exploration rate");
+            double decayRate = readRate(buffer, "exploration decay rate");
+            double minRate = readRate(buffer, "minimum exploration rate");
+            int decayInterval = buffer.getInt();
+            if (decayInterval < 1) {
+                throw new IOException("Q-table file has an invalid decay interval " + decayInterval);
+            }
+            ExplorationConfig config = new ExplorationConfig(initialRate, decayRate, minRate, decayInterval);
+            double explorationRate = readRate(buffer, "exploration rate");
+            long explorationMoves = buffer.getLong();
+            if (explorationMoves < 0) {
+                throw new IOException("Q-table file has an invalid move count " + explorationMoves);
+            }
+
+            double[] qValues = new double[boardSize * boardSize];
+            buffer.asDoubleBuffer().get(qValues);
+
+            return new AgentSnapshot(boardSize, learningRate, discountFactor, config, explorationRate, explorationMoves,
+                    qValues);
+        }
+    }
+
+    // every rate in the file is a fraction; the negated test also rejects NaN
+    private static double readRate(ByteBuffer buffer, String name) throws IOException {
+        double rate = buffer.getDouble();
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IOException("Q-table file has an invalid " + name + " " + rate);
+        }
+        return rate;
+    }
+}
\ No newline at end of file
@@ -1,45 +1,32 @@
 package ai;
 
 import model.Coordinates;
-import java.util.*;
+import model.ShotSet;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public class RandomExplorationStrategy extends ExplorationStrategy {
-    private final Random rng;
+    private final RandomGenerator rng;
 
     public RandomExplorationStrategy(int boardSize) {
+        this(boardSize, new SplittableRandom());
+    }
+
+    public RandomExplorationStrategy(int boardSize, RandomGenerator rng) {
         super(boardSize);
-        this.rng = new Random();
+        this.rng = rng;
     }
 
     @Override
-    public Coordinates getExplorationShot(Set<Coordinates> shotsFired, double[][] stateActionValues) {
-        // trying random positions with a max number of attempts
-        int attempts = 0;
-        int maxAttempts = boardSize * boardSize;
-
-        while (attempts < maxAttempts) {
-            int row = rng.nextInt(boardSize);
-            int col = rng.nextInt(boardSize);
-            Coordinates pos = new Coordinates(row, col);
-
-            if (!shotsFired.contains(pos)) {
-                return pos;
-            }
-            attempts++;
-        }
-        // if random attempts fail
-        return getSystematicShot(shotsFired);
+    public ShotSource getShotSource() {
+        return ShotSource.RANDOM;
     }
 
-    private Coordinates getSystematicShot(Set<Coordinates> shotsFired) {
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Coordinates pos = new Coordinates(i, j);
-                if (!shotsFired.contains(pos)) {
-                    return pos;
-                }
-            }
-        }
-        return null;
+    @Override
+    public Coordinates getExplorationShot(ShotSet shotsFired, QTable qTable) {
+        // uniform pick among the unshot cells, no retries needed
+        int cell = shotsFired.randomUnshot(rng);
+        return cell >= 0 ? Coordinates.ofIndex(cell, boardSize) : null;
     }
 }
\ No newline at end of file
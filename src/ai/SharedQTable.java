@@ -0,0 +1,44 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// one table for many agents training at once, Hogwild style: reads and writes take no lock, the learning update is a
+// compare-and-set loop on the value's bits so concurrent updates to one cell are never lost; the orientation boost is
+// a plain write and may overwrite a racing update, which the learning rule shrugs off
+class SharedQTable implements QTable {
+    private final int boardSize;
+    private final AtomicLongArray values;
+
+    SharedQTable(int boardSize) {
+        this.boardSize = boardSize;
+        this.values = new AtomicLongArray(boardSize * boardSize);
+        for (int cell = 0; cell < values.length(); cell++) {
+            values.setPlain(cell, Double.doubleToRawLongBits(QTable.initialValue(boardSize, cell)));
+        }
+    }
+
+    @Override
+    public int boardSize() { return boardSize; }
+
+    @Override
+    public double get(int cell) {
+        return Double.longBitsToDouble(values.getOpaque(cell));
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        values.setOpaque(cell, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void update(int cell, double learningRate, double target) {
+        long bits = values.getOpaque(cell);
+        while (true) {
+            double q = Double.longBitsToDouble(bits);
+            long updated = Double.doubleToRawLongBits(q + learningRate * (target - q));
+            long witness = values.compareAndExchange(cell, bits, updated);
+            if (witness == bits) return;
+            bits = witness;
+        }
+    }
+}
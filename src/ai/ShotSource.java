@@ -0,0 +1,13 @@
+package ai;
+
+// where a shot came from, recorded with every shot in the game journal
+public enum ShotSource {
+    HUMAN,
+    REMOTE,
+    RANDOM,
+    PARITY,
+    DENSITY,
+    POSTERIOR,
+    NEIGHBOUR,
+    Q_VALUE
+}
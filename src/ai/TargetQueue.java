@@ -0,0 +1,62 @@
+package ai;
+
+import java.util.Arrays;
+
+// max-heap of candidate cells keyed by priority, kept in two parallel arrays so queueing a target allocates nothing
+class TargetQueue {
+    private int[] cells;
+    private double[] priorities;
+    private int size;
+
+    TargetQueue(int capacity) {
+        this.cells = new int[capacity];
+        this.priorities = new double[capacity];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void offer(int cell, double priority) {
+        if (size == cells.length) { // only games far longer than the board grow it, and only once
+            cells = Arrays.copyOf(cells, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+        }
+
+        int child = size++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (priorities[parent] >= priority) break;
+            cells[child] = cells[parent];
+            priorities[child] = priorities[parent];
+            child = parent;
+        }
+        cells[child] = cell;
+        priorities[child] = priority;
+    }
+
+    // removes and returns the cell with the highest priority; the queue must not be empty
+    int poll() {
+        int top = cells[0];
+        int lastCell = cells[--size];
+        double last = priorities[size];
+
+        int parent = 0;
+        int half = size >>> 1;
+        while (parent < half) {
+            int child = 2 * parent + 1;
+            if (child + 1 < size && priorities[child + 1] > priorities[child]) child++;
+            if (last >= priorities[child]) break;
+            cells[parent] = cells[child];
+            priorities[parent] = priorities[child];
+            parent = child;
+        }
+        cells[parent] = lastCell;
+        priorities[parent] = last;
+        return top;
+    }
+}
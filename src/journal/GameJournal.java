@@ -0,0 +1,157 @@
+package journal;
+
+import ai.ShotSource;
+import model.Board;
+import model.CellMask;
+import model.Coordinates;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/*
+ * Append-only game log, little-endian, written through memory-mapped segment files <name>-<n>.journal:
+ *   segment: int magic 'RLGJ', int version, then records up to the first zero type byte
+ *   game:    byte GAME, long gameId, short cells, long[(cells + 63) / 64] ship cell bits
+ *   shot:    byte SHOT, byte cell, byte result, byte source
+ *   end:     byte END, byte won
+ * A game never spans two segments, the next segment is started when the current one cannot hold a whole game.
+ * A cell is one byte, so only boards of up to 256 cells can be journaled.
+ * One writer per thread: the trainer gives every worker its own name, so appending never takes a lock.
+ */
+public class GameJournal implements AutoCloseable {
+    static final int MAGIC = 0x524C474A;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final byte GAME = 1;
+    static final byte SHOT = 2;
+    static final byte END = 3;
+    static final String SUFFIX = ".journal";
+    static final String[] RESULTS = {"miss", "hit", "hit and sunk", "last ship sunk"};
+    static final ShotSource[] SOURCES = ShotSource.values();
+
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final int SHOT_BYTES = 4;
+    private static final int END_BYTES = 2;
+    private static final int MAX_CELLS = 256;
+    private static final int SHOTS_PER_CELL = 2; // room for both players shooting at one board in local games
+
+    private final Path directory;
+    private final String name;
+    private final long segmentBytes;
+    private int segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long games;
+    private int boardSize;
+    private int shotsLeft; // of the current game's reserve
+
+    private GameJournal(Path directory, String name, long segmentBytes, int segment) {
+        this.directory = directory;
+        this.name = name;
+        this.segmentBytes = segmentBytes;
+        this.segment = segment;
+    }
+
+    public static GameJournal open(Path directory, String name) throws IOException {
+        return open(directory, name, DEFAULT_SEGMENT_BYTES);
+    }
+
+    // appends after any segments an earlier run left under the same name
+    public static GameJournal open(Path directory, String name, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        int last = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(name + "-") && fileName.endsWith(SUFFIX)) {
+                    String number = fileName.substring(name.length() + 1, fileName.length() - SUFFIX.length());
+                    try {
+                        last = Math.max(last, Integer.parseInt(number));
+                    } catch (NumberFormatException ignored) {
+                        // some other writer's file with a longer name
+                    }
+                }
+            }
+        }
+        return new GameJournal(directory, name, segmentBytes, last);
+    }
+
+    public void beginGame(long gameId, Board board) throws IOException {
+        beginGame(gameId, board.getSize(), board.getShips());
+    }
+
+    // for a fleet known only as a mask, e.g. the cells a network opponent reported as hit
+    public void beginGame(long gameId, int boardSize, CellMask ships) throws IOException {
+        if (ships.cells() > MAX_CELLS) {
+            throw new IllegalArgumentException("Boards above " + MAX_CELLS + " cells cannot be journaled");
+        }
+        this.boardSize = boardSize;
+        this.shotsLeft = SHOTS_PER_CELL * ships.cells();
+        int gameBytes = 1 + Long.BYTES + Short.BYTES + ships.wordCount() * Long.BYTES
+                + SHOTS_PER_CELL * ships.cells() * SHOT_BYTES + END_BYTES;
+        if (buffer == null || buffer.remaining() < gameBytes) {
+            rotate(gameBytes);
+        }
+
+        buffer.put(GAME).putLong(gameId).putShort((short) ships.cells());
+        for (int i = 0; i < ships.wordCount(); i++) {
+            buffer.putLong(ships.word(i));
+        }
+    }
+
+    public void recordShot(Coordinates shot, String result, ShotSource source) {
+        byte code = switch (result) {
+            case "miss" -> 0;
+            case "hit" -> 1;
+            case "hit and sunk" -> 2;
+            case "last ship sunk" -> 3;
+            default -> throw new IllegalArgumentException("Unknown result: " + result);
+        };
+        // a game holds at most SHOTS_PER_CELL shots per cell, the space beginGame reserved and the bound readers size
+        // their arrays by; repeats typed by a person or sent by a peer past that are dropped
+        if (shotsLeft == 0) return;
+        shotsLeft--;
+        buffer.put(SHOT).put((byte) shot.index(boardSize)).put(code).put((byte) source.ordinal());
+    }
+
+    public void endGame(boolean won) {
+        buffer.put(END).put((byte) (won ? 1 : 0));
+        games++;
+    }
+
+    public long getGames() { return games; }
+
+    private void rotate(int gameBytes) throws IOException {
+        closeSegment();
+        segment++;
+        Path file = directory.resolve(String.format("%s-%06d%s", name, segment, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, HEADER_BYTES + gameBytes));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) return;
+        buffer.force();
+        try {
+            channel.truncate(buffer.position()); // drop the unused tail, readers stop at the end either way
+        } catch (IOException e) {
+            // some platforms refuse to truncate a mapped file, the zero padding is harmless
+        }
+        channel.close();
+        channel = null;
+        buffer = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+}
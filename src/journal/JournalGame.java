@@ -0,0 +1,7 @@
+package journal;
+
+import model.CellMask;
+
+import java.util.List;
+
+public record JournalGame(long id, CellMask ships, List<JournalShot> shots, boolean won) {}
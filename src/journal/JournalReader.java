@@ -0,0 +1,158 @@
+package journal;
+
+import model.CellMask;
+import model.Coordinates;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// streams the games of every segment in a journal directory back, one segment mapped at a time
+public class JournalReader {
+    private final List<Path> segments;
+    private int nextSegment;
+    private MappedByteBuffer buffer;
+    private long skippedGames;
+    private long oversizedGames;
+
+    public JournalReader(Path directory) throws IOException {
+        this(segmentsIn(directory));
+    }
+
+    public JournalReader(List<Path> segments) {
+        this.segments = segments;
+    }
+
+    public static List<Path> segmentsIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(GameJournal.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public static String resultName(int code) {
+        return GameJournal.RESULTS[code];
+    }
+
+    public int getSegmentCount() { return segments.size(); }
+
+    // the next complete game, or null once every segment is read; a game cut off by a crash is skipped
+    public JournalGame next() throws IOException {
+        while (true) {
+            if (buffer == null || !buffer.hasRemaining() || buffer.get(buffer.position()) != GameJournal.GAME) {
+                if (!openNextSegment()) return null;
+                continue;
+            }
+
+            JournalGame game = readGame();
+            if (game != null) return game;
+        }
+    }
+
+    // bulk path for training: copies the next complete game's shot cells and result codes into the arrays at `offset`
+    // and returns the shot count, or -1 once every segment is read. Games recorded on a board of another size are
+    // skipped, their cells mean something else, and so are games with more than `capacity` shots, which older
+    // writers could produce from repeated shots; see getSkippedGames and getOversizedGames
+    public int nextShots(int boardCells, byte[] cells, byte[] results, int offset, int capacity) throws IOException {
+        nextGame:
+        while (true) {
+            if (buffer == null || !buffer.hasRemaining() || buffer.get(buffer.position()) != GameJournal.GAME) {
+                if (!openNextSegment()) return -1;
+                continue;
+            }
+
+            buffer.position(buffer.position() + 1 + Long.BYTES); // GAME, id
+            int gameCells = buffer.getShort();
+            boolean matches = gameCells == boardCells;
+            buffer.position(buffer.position() + ((gameCells + 63) >>> 6) * Long.BYTES);
+
+            int shots = 0;
+            boolean oversized = false;
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                if (type == GameJournal.SHOT && matches && shots < capacity) {
+                    cells[offset + shots] = buffer.get();
+                    results[offset + shots] = buffer.get();
+                    buffer.get(); // source
+                    shots++;
+                } else if (type == GameJournal.SHOT) {
+                    oversized |= matches;
+                    buffer.position(buffer.position() + 3);
+                } else if (type == GameJournal.END) {
+                    buffer.get(); // won
+                    if (oversized) {
+                        oversizedGames++;
+                    } else if (matches) {
+                        return shots;
+                    } else {
+                        skippedGames++;
+                    }
+                    continue nextGame;
+                } else {
+                    break; // the writer stopped mid-game
+                }
+            }
+            buffer.position(buffer.limit());
+        }
+    }
+
+    public long getSkippedGames() { return skippedGames; }
+
+    public long getOversizedGames() { return oversizedGames; }
+
+    private JournalGame readGame() {
+        buffer.get(); // GAME
+        long id = buffer.getLong();
+        CellMask ships = new CellMask(buffer.getShort());
+        for (int i = 0; i < ships.wordCount(); i++) {
+            ships.setWord(i, buffer.getLong());
+        }
+        int boardSize = (int) Math.round(Math.sqrt(ships.cells())); // journaled boards are square
+
+        List<JournalShot> shots = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            byte type = buffer.get();
+            if (type == GameJournal.SHOT) {
+                Coordinates target = Coordinates.ofIndex(buffer.get() & 0xFF, boardSize);
+                String result = GameJournal.RESULTS[buffer.get()];
+                shots.add(new JournalShot(target, result, GameJournal.SOURCES[buffer.get()]));
+            } else if (type == GameJournal.END) {
+                return new JournalGame(id, ships, shots, buffer.get() == 1);
+            } else {
+                break; // the writer stopped mid-game
+            }
+        }
+        buffer.position(buffer.limit());
+        return null;
+    }
+
+    private boolean openNextSegment() throws IOException {
+        buffer = null;
+        if (nextSegment == segments.size()) return false;
+
+        Path file = segments.get(nextSegment++);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < GameJournal.HEADER_BYTES) return true; // empty, move on
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt() != GameJournal.MAGIC) {
+            throw new IOException(file + " is not a game journal");
+        }
+        int version = buffer.getInt();
+        if (version != GameJournal.VERSION) {
+            throw new IOException("Unsupported journal version " + version + " in " + file);
+        }
+        return true;
+    }
+}
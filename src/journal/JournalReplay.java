@@ -0,0 +1,53 @@
+package journal;
+
+import ai.ShotSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// reads a whole journal back and summarises it: outcomes, and how well each shot source does
+public class JournalReplay {
+    private final Path directory;
+
+    public JournalReplay(Path directory) {
+        this.directory = directory;
+    }
+
+    public void run() throws IOException {
+        JournalReader reader = new JournalReader(directory);
+        long[] shotsBySource = new long[ShotSource.values().length];
+        long[] hitsBySource = new long[ShotSource.values().length];
+        long games = 0;
+        long wins = 0;
+        long shotsInWins = 0;
+        long start = System.nanoTime();
+
+        JournalGame game;
+        while ((game = reader.next()) != null) {
+            games++;
+            if (game.won()) {
+                wins++;
+                shotsInWins += game.shots().size();
+            }
+            for (JournalShot shot : game.shots()) {
+                int source = shot.source().ordinal();
+                shotsBySource[source]++;
+                if (!shot.result().equals("miss")) hitsBySource[source]++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games in %d segments, read in %.2f s (%.0f games/sec)%n",
+                games, reader.getSegmentCount(), seconds, games / Math.max(seconds, 1e-9));
+        if (games == 0) return;
+
+        System.out.printf("Won %d (%.1f%%), %.1f shots per win%n",
+                wins, 100.0 * wins / games, wins > 0 ? (double) shotsInWins / wins : 0);
+        System.out.println("Source       shots    hit rate");
+        for (ShotSource source : ShotSource.values()) {
+            long shots = shotsBySource[source.ordinal()];
+            if (shots == 0) continue;
+            System.out.printf("%-10s %8d %10.1f%%%n", source, shots, 100.0 * hitsBySource[source.ordinal()] / shots);
+        }
+    }
+}
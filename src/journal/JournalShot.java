@@ -0,0 +1,6 @@
+package journal;
+
+import ai.ShotSource;
+import model.Coordinates;
+
+public record JournalShot(Coordinates target, String result, ShotSource source) {}
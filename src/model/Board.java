@@ -1,26 +1,71 @@
 package model;
 
+import telemetry.ShotEvent;
+
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class Board {
 
-    private final int BOARD_SIZE = 10;
+    public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_SIZE = 4096;
+    // boards up to this size lay fleets out from precomputed placement tables, which grow with the square of the area;
+    // larger boards place ships by rejection sampling, which only touches the cells it tries
+    public static final int MAX_TABLE_SIZE = 32;
+    private static final int MAX_LAYOUT_ATTEMPTS = 1000;
+
     private final char EMPTY = '~';
     private final char SHIP = '#';
-    private final char[][] board;
-    private final Random random = new Random();
-    private Map<Integer, List<int[][]>> shapes;
-    private final int[] shipSizes = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+    private final int size;
+    private char[][] board; // display view, only built once something asks for it
+
+    // bitboard layers, one bit per cell, allocated chunk by chunk as cells in them are set
+    private final CellMask ships;
+    private final CellMask hits;
+    private final CellMask misses;
+    private final CellMask halo; // ship cells plus their no-touch border
+
+    // per-ship damage tracking, ids start at 1
+    private final int[][] shipIds; // per cell, in the masks' chunks and only allocated where a ship lies
+    private final int[] shipCellsLeft;
+    private int placedShips;
+    private int remainingShips;
+    private final RandomGenerator random;
+    private static final Map<Integer, List<int[][]>> shapes = initializeShapes();
+    private static final int[] shipSizes = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+    private final int[] fleet;
+    private final FleetPlacer placer; // null on boards above MAX_TABLE_SIZE
+    private final int[] chosenPlacements;
 
     public Board() {
-        board = new char[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {Arrays.fill(board[i], EMPTY);}
-        initializeShapes();
+        this(new SplittableRandom());
+    }
+
+    public Board(RandomGenerator random) {
+        this(DEFAULT_SIZE, shipSizes, random);
+    }
+
+    public Board(int size, int[] fleet, RandomGenerator random) {
+        this.size = size;
+        this.random = random;
+        this.fleet = fleet.clone();
+        this.ships = new CellMask(size * size);
+        this.hits = new CellMask(size * size);
+        this.misses = new CellMask(size * size);
+        this.halo = new CellMask(size * size);
+        this.shipIds = new int[(size * size + CellMask.CHUNK_CELLS - 1) >>> CellMask.CHUNK_SHIFT][];
+        this.shipCellsLeft = new int[fleet.length + 1];
+        this.placer = size <= MAX_TABLE_SIZE ? new FleetPlacer(size, fleet) : null;
+        this.chosenPlacements = new int[fleet.length];
         generateMap();
     }
 
-    private void initializeShapes(){
-        this.shapes = new HashMap<>();
+    private int index(int row, int col) {
+        return row * size + col;
+    }
+
+    private static Map<Integer, List<int[][]>> initializeShapes(){
+        Map<Integer, List<int[][]>> shapes = new HashMap<>();
         shapes.put(4, Arrays.asList(
                 new int[][] {{0,0}, {0,1}, {0,2}, {0,3}}, // line
                 new int[][] {{0,0}, {0,1}, {0,2}, {1,0}}, // L
@@ -40,31 +85,94 @@ public class Board {
         shapes.put(1, Collections.singletonList(
                 new int[][] {{0,0}}
         ));
+        return shapes;
+    }
+
+    // shapes are placed as listed or transposed, see placeShip; sizes outside the catalogue are straight lines
+    public static List<int[][]> getShapes(int size) {
+        List<int[][]> catalogued = shapes.get(size);
+        if (catalogued != null) return catalogued;
+        if (size < 1) return Collections.emptyList();
+
+        int[][] line = new int[size][];
+        for (int i = 0; i < size; i++) line[i] = new int[] {0, i};
+        return Collections.singletonList(line);
+    }
+
+    // the standard fleet, used unless the game configures another
+    public static int[] getShipSizes() {
+        return shipSizes.clone();
     }
 
     public Board(char c){
-        board = new char[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {Arrays.fill(board[i], c);}
-        initializeShapes();
+        this(DEFAULT_SIZE, c);
+    }
+
+    // a board that is only displayed, e.g. the view of the enemy's waters
+    public Board(int size, char c){
+        this.size = size;
+        this.random = new SplittableRandom();
+        this.fleet = new int[0];
+        this.ships = new CellMask(size * size);
+        this.hits = new CellMask(size * size);
+        this.misses = new CellMask(size * size);
+        this.halo = new CellMask(size * size);
+        this.shipIds = new int[0][];
+        this.shipCellsLeft = new int[1];
+        this.placer = null;
+        this.chosenPlacements = new int[0];
+        board = new char[size][size];
+        for (int i = 0; i < size; i++) {Arrays.fill(board[i], c);}
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int[] getFleet() {
+        return fleet.clone();
     }
 
     public void placeShip(int size) {
-        List<int[][]> possibleShapes = shapes.get(size);
+        if (placedShips == fleet.length) return; // fleet complete
+        tryPlaceShip(getShapes(size), random, 100);
+    }
+
+    // random origin, shape and orientation until one fits the halo; false if none did within the attempts
+    private boolean tryPlaceShip(List<int[][]> possibleShapes, RandomGenerator random, int attempts) {
         int[][] shape = possibleShapes.get(random.nextInt(possibleShapes.size()));
 
-        int ATTEMPTS = 100;
-        for (int i = 0; i < ATTEMPTS; i++) {
-            int row = random.nextInt(BOARD_SIZE);
-            int col = random.nextInt(BOARD_SIZE);
+        for (int i = 0; i < attempts; i++) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
             boolean canRotate = random.nextBoolean();
 
             if (canPlaceShipHere(row, col, shape, canRotate)) {
-                for (int[] coords : shape) {
-                    int finalRow = row + (canRotate ? coords[1] : coords[0]);
-                    int finalCol = col + (canRotate ? coords[0] : coords[1]);
-                    board[finalRow][finalCol] = SHIP;
+                int[] cells = new int[shape.length];
+                for (int j = 0; j < shape.length; j++) {
+                    cells[j] = index(row + (canRotate ? shape[j][1] : shape[j][0]), col + (canRotate ? shape[j][0] : shape[j][1]));
+                }
+                addShip(cells);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addShip(int[] cells) {
+        int shipId = ++placedShips;
+        shipCellsLeft[shipId] = cells.length;
+        remainingShips++;
+        for (int cell : cells) {
+            int row = cell / size;
+            int col = cell % size;
+            if (board != null) board[row][col] = SHIP;
+            ships.set(cell);
+            setShipAt(cell, shipId);
+            for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                    halo.set(index(r, c));
                 }
-                return;
             }
         }
     }
@@ -74,81 +182,130 @@ public class Board {
             int row = startRow + (rotate ? coords[1] : coords[0]);
             int col = startCol + (rotate ? coords[0] : coords[1]);
 
-            if (row < 0 || col < 0 || row >= BOARD_SIZE || col >= BOARD_SIZE) {return false;}
-
-            for (int i = -1; i <= 1; i++) {
-                for (int j = -1; j <= 1; j++) {
-                    int newRow = row + i;
-                    int newCol = col + j;
-                    if (newRow >= 0 && newRow < BOARD_SIZE && newCol >= 0 && newCol < BOARD_SIZE && board[newRow][newCol] == SHIP) {return false;}
-                }
-            }
+            if (row < 0 || col < 0 || row >= size || col >= size) {return false;}
+            if (halo.get(index(row, col))) {return false;}
         }
         return true;
     }
 
+    // always places the full fleet, see FleetPlacer
     public void generateMap(){
-        for (int i = 0; i < BOARD_SIZE; i++) {Arrays.fill(board[i], EMPTY);}
-        for (int size : shipSizes) {placeShip(size);}
+        generateMap(random);
     }
 
-    public char[][] getBoard() {
-        return board;
+    // draws the layout from the given stream instead of the board's own, e.g. one split off per game
+    public void generateMap(RandomGenerator random){
+        clearMap();
+        if (placer == null) {
+            placeSparse(random);
+            return;
+        }
+        placer.placeFleet(random, chosenPlacements);
+        addChosenShips();
     }
 
-    public boolean hasShipsLeft() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == SHIP) {
-                    return true;
-                }
+    // like generateMap, but every legal layout is equally likely; slower, meant for unbiased simulation
+    public void generateUniformMap(){
+        clearMap();
+        if (placer == null) {
+            placeSparse(random);
+            return;
+        }
+        placer.placeFleetUniformly(random, chosenPlacements);
+        addChosenShips();
+    }
+
+    private void addChosenShips() {
+        for (int ship = 0; ship < chosenPlacements.length; ship++) {
+            addShip(placer.cells(ship, chosenPlacements[ship]));
+        }
+    }
+
+    // ship by ship rejection sampling, starting over when a ship finds no room
+    private void placeSparse(RandomGenerator random) {
+        for (int attempt = 0; attempt < MAX_LAYOUT_ATTEMPTS; attempt++) {
+            boolean placed = true;
+            for (int ship = 0; ship < fleet.length && placed; ship++) {
+                placed = tryPlaceShip(getShapes(fleet[ship]), random, MAX_LAYOUT_ATTEMPTS);
             }
+            if (placed) return;
+            clearMap();
         }
-        return false;
+        throw new IllegalStateException("Fleet does not fit on the board");
     }
 
-    public void markShot(int row, int col, char mark) {
-        if (row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE) {
-            board[row][col] = mark;
+    private void clearMap(){
+        if (board != null) {
+            for (int i = 0; i < size; i++) {Arrays.fill(board[i], EMPTY);}
         }
+        ships.clear();
+        hits.clear();
+        misses.clear();
+        halo.clear();
+        placedShips = 0;
+        remainingShips = 0;
     }
 
-    public void displayBoard() {
-        char[][] boardArray = getBoard();
-        System.out.println("  A B C D E F G H I J");
-        for (int i = 0; i < 10; i++) {
-            System.out.print(i+1);
-            if (i!=9) System.out.print(" ");
-            for (int j = 0; j < 10; j++) {
-                System.out.print(boardArray[i][j] + " ");
+    public char[][] getBoard() {
+        if (board == null) {
+            board = new char[size][size];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    int cell = index(i, j);
+                    board[i][j] = hits.get(cell) ? 'X' : ships.get(cell) ? SHIP : EMPTY;
+                }
             }
-            System.out.println();
         }
+        return board;
+    }
+
+    // live view of the ship cells, not to be modified
+    public CellMask getShips() {
+        return ships;
+    }
+
+    public boolean hasShipsLeft() {
+        return remainingShips > 0;
+    }
+
+    public void markShot(int row, int col, char mark) {
+        if (row >= 0 && row < size && col >= 0 && col < size) {
+            getBoard()[row][col] = mark;
+        }
+    }
+
+    // display boards: every cell back to one marker, e.g. '?' for a new game against an unseen fleet
+    public void fill(char c) {
+        char[][] board = getBoard();
+        for (int i = 0; i < size; i++) {Arrays.fill(board[i], c);}
     }
 
     public void changeUnknownsToSea(){
-        for (int i = 0; i < BOARD_SIZE; i++){
-            for (int j = 0; j < BOARD_SIZE; j++){
+        char[][] board = getBoard();
+        for (int i = 0; i < size; i++){
+            for (int j = 0; j < size; j++){
                 if (board[i][j] != SHIP){ board[i][j] = EMPTY;}
             }
         }
     }
 
     public void changeMissesToSea(){
-        for (int i = 0; i < BOARD_SIZE; i++){
-            for (int j = 0; j < BOARD_SIZE; j++){
+        char[][] board = getBoard();
+        for (int i = 0; i < size; i++){
+            for (int j = 0; j < size; j++){
                 if (board[i][j] == '~'){ board[i][j] = EMPTY;}
             }
         }
     }
 
     public void markBorders(int row, int col) {
+        char[][] board = getBoard();
         for (int i = -1; i <= 1; i++) {
             for (int j = -1; j <= 1; j++) {
                 int newRow = row + i;
                 int newCol = col + j;
-                if (newRow >= 0 && newRow < BOARD_SIZE &&
-                        newCol >= 0 && newCol < BOARD_SIZE &&
+                if (newRow >= 0 && newRow < size &&
+                        newCol >= 0 && newCol < size &&
                         board[newRow][newCol] == '~') {
                     board[newRow][newCol] = '~';
                 }
@@ -157,62 +314,57 @@ public class Board {
     }
 
     public String checkShot(Coordinates coords) {
-        if (board[coords.getRow()][coords.getCol()] == '#') {
-            board[coords.getRow()][coords.getCol()] = '#';
-            if (isLastShip()) {
-                return "last ship sunk";
-            }
-            if (isShipSunk(coords.getRow(), coords.getCol())) {
-                return "hit and sunk";
-            }
-            return "hit";
+        if (!coords.isOn(size)) {
+            throw new IllegalArgumentException("Coordinates out of bounds");
         }
-        board[coords.getRow()][coords.getCol()] = '~';
-        return "miss";
-    }
-
-    public boolean isLastShip() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == '#') return false;
-            }
+        // the event is never filled in or committed unless a recording has it enabled
+        ShotEvent event = new ShotEvent();
+        event.begin();
+        String result = resolveShot(coords);
+        if (event.shouldCommit()) {
+            event.target = coords.toString();
+            event.result = result;
+            event.commit();
         }
-        return true;
+        return result;
     }
 
-    public boolean isShipSunk(int row, int col) {
-        Set<Coordinates> checked = new HashSet<>();
-        Set<Coordinates> shipCells = new HashSet<>();
-        findConnectedShipCells(row, col, checked, shipCells);
+    private String resolveShot(Coordinates coords) {
+        int index = coords.index(size);
+        if (ships.get(index)) {
+            if (board != null) board[coords.getRow()][coords.getCol()] = 'X';
+            if (hits.get(index)) return "hit"; // repeated shot, nothing changes
 
-        for (Coordinates cell : shipCells) {
-            if (board[cell.getRow()][cell.getCol()] == '#') {
-                return false;
-            }
+            hits.set(index);
+            if (--shipCellsLeft[shipAt(index)] > 0) return "hit";
+
+            remainingShips--;
+            return remainingShips == 0 ? "last ship sunk" : "hit and sunk";
         }
-        return true;
+        misses.set(index);
+        if (board != null) board[coords.getRow()][coords.getCol()] = '~';
+        return "miss";
     }
 
-    private void findConnectedShipCells(int row, int col,
-                                        Set<Coordinates> checked,
-                                        Set<Coordinates> shipCells) {
-        Coordinates current = new Coordinates(row, col);
-        if (checked.contains(current)) return;
-
-        checked.add(current);
-        if (board[row][col] != '#' && board[row][col] != 'X') return;
+    // ids are never cleared, they are only read for cells the ships mask says are covered in the current layout
+    private int shipAt(int cell) {
+        return shipIds[cell >>> CellMask.CHUNK_SHIFT][cell & (CellMask.CHUNK_CELLS - 1)];
+    }
 
-        shipCells.add(current);
+    private void setShipAt(int cell, int shipId) {
+        int chunk = cell >>> CellMask.CHUNK_SHIFT;
+        if (shipIds[chunk] == null) {
+            shipIds[chunk] = new int[Math.min(CellMask.CHUNK_CELLS, size * size - (chunk << CellMask.CHUNK_SHIFT))];
+        }
+        shipIds[chunk][cell & (CellMask.CHUNK_CELLS - 1)] = shipId;
+    }
 
-        int[][] directions = {{-1,0}, {1,0}, {0,-1}, {0,1}};
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
+    public boolean isLastShip() {
+        return remainingShips == 0;
+    }
 
-            if (newRow >= 0 && newRow < BOARD_SIZE &&
-                    newCol >= 0 && newCol < BOARD_SIZE) {
-                findConnectedShipCells(newRow, newCol, checked, shipCells);
-            }
-        }
+    public boolean isShipSunk(int row, int col) {
+        int cell = index(row, col);
+        return !ships.get(cell) || shipCellsLeft[shipAt(cell)] == 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package model;
+
+import java.io.PrintStream;
+
+/*
+ * Draws a player's own board and what they know of the enemy's. Every frame is built in one buffer and written with a
+ * single print. PLAIN prints the boards one below the other on each call. ANSI draws both side by side at the top of
+ * the screen once, keeps the log scrolling underneath them and afterwards rewrites only the cells that changed. NONE
+ * draws nothing and drops the per-turn log too, for headless games.
+ */
+public class BoardRenderer {
+    private static final String CSI = "\u001b[";
+    private static final String SAVE_CURSOR = "\u001b7";
+    private static final String RESTORE_CURSOR = "\u001b8";
+    private static final int GAP = 4;
+
+    private final RenderMode mode;
+    private final PrintStream out;
+    private final Board yours;
+    private final Board enemy;
+    private final int size;
+    private final int rowWidth;
+    private final int colWidth;
+    private final int enemyLeft; // first screen column of the enemy board in ANSI mode
+    private final StringBuilder frame = new StringBuilder();
+    private char[] drawnYours; // what the terminal shows, null until the first ANSI frame
+    private char[] drawnEnemy;
+
+    public BoardRenderer(RenderMode mode, Board yours, Board enemy, PrintStream out) {
+        this.mode = mode == RenderMode.AUTO ? detect() : mode;
+        this.out = out;
+        this.yours = yours;
+        this.enemy = enemy;
+        this.size = yours.getSize();
+        this.rowWidth = String.valueOf(size).length();
+        this.colWidth = Coordinates.columnLabel(size - 1).length();
+        this.enemyLeft = 1 + rowWidth + size * (colWidth + 1) + GAP;
+    }
+
+    // ANSI when attached to a terminal that understands it
+    public static RenderMode detect() {
+        String term = System.getenv("TERM");
+        return System.console() != null && term != null && !term.equals("dumb") ? RenderMode.ANSI : RenderMode.PLAIN;
+    }
+
+    public RenderMode getMode() { return mode; }
+
+    public void render() {
+        switch (mode) {
+            case PLAIN -> {
+                frame.setLength(0);
+                appendPlain("Your board:", yours);
+                appendPlain("Enemy board:", enemy);
+                flush();
+            }
+            case ANSI -> renderAnsi();
+            default -> {}
+        }
+    }
+
+    // the single-board variants only differ in PLAIN mode, ANSI keeps both boards on screen anyway
+    public void renderYours() {
+        renderOne("Your board:", yours);
+    }
+
+    public void renderEnemy() {
+        renderOne("Enemy board:", enemy);
+    }
+
+    private void renderOne(String title, Board board) {
+        switch (mode) {
+            case PLAIN -> {
+                frame.setLength(0);
+                appendPlain(title, board);
+                flush();
+            }
+            case ANSI -> renderAnsi();
+            default -> {}
+        }
+    }
+
+    // per-turn messages, silent in NONE mode
+    public void log(String line) {
+        if (isLogging()) out.println(line);
+    }
+
+    // for callers that build the line per message, so headless games skip the formatting as well
+    public boolean isLogging() {
+        return mode != RenderMode.NONE;
+    }
+
+    // hands the whole screen back to the log
+    public void close() {
+        if (mode == RenderMode.ANSI && drawnYours != null) {
+            out.print(SAVE_CURSOR + CSI + "r" + RESTORE_CURSOR);
+            out.flush();
+            drawnYours = null;
+            drawnEnemy = null;
+        }
+    }
+
+    private void appendPlain(String title, Board board) {
+        frame.append('\n').append(title).append('\n');
+        appendHeader();
+        frame.append('\n');
+        char[][] cells = board.getBoard();
+        for (int i = 0; i < size; i++) {
+            appendPadded(String.valueOf(i + 1), rowWidth);
+            for (int j = 0; j < size; j++) {
+                appendCell(cells[i][j]);
+            }
+            frame.append('\n');
+        }
+    }
+
+    private void renderAnsi() {
+        frame.setLength(0);
+        if (drawnYours == null) {
+            drawnYours = new char[size * size];
+            drawnEnemy = new char[size * size];
+            int frameHeight = size + 3; // title, column labels, rows and a blank line
+            frame.append(CSI).append("2J");
+            drawFrame(yours, drawnYours, 1, "Your board:");
+            drawFrame(enemy, drawnEnemy, enemyLeft, "Enemy board:");
+            // the log scrolls below the boards from here on; setting the region homes the cursor, so move it down
+            frame.append(CSI).append(frameHeight + 1).append('r');
+            frame.append(CSI).append(frameHeight + 1).append(";1H");
+        } else {
+            frame.append(SAVE_CURSOR);
+            drawChanges(yours, drawnYours, 1);
+            drawChanges(enemy, drawnEnemy, enemyLeft);
+            frame.append(RESTORE_CURSOR);
+        }
+        flush();
+    }
+
+    private void drawFrame(Board board, char[] drawn, int left, String title) {
+        moveTo(1, left);
+        frame.append(title);
+        moveTo(2, left);
+        appendHeader();
+        char[][] cells = board.getBoard();
+        for (int i = 0; i < size; i++) {
+            moveTo(3 + i, left);
+            appendPadded(String.valueOf(i + 1), rowWidth);
+            for (int j = 0; j < size; j++) {
+                drawn[i * size + j] = cells[i][j];
+                appendCell(cells[i][j]);
+            }
+        }
+    }
+
+    // rewrites only the cells that differ from what was last drawn
+    private void drawChanges(Board board, char[] drawn, int left) {
+        char[][] cells = board.getBoard();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                char c = cells[i][j];
+                if (drawn[i * size + j] == c) continue;
+                drawn[i * size + j] = c;
+                moveTo(3 + i, left + rowWidth + j * (colWidth + 1));
+                appendCell(c);
+            }
+        }
+    }
+
+    private void moveTo(int row, int col) {
+        frame.append(CSI).append(row).append(';').append(col).append('H');
+    }
+
+    private void appendHeader() {
+        frame.append(" ".repeat(rowWidth));
+        for (int j = 0; j < size; j++) {
+            appendPadded(Coordinates.columnLabel(j), colWidth);
+            frame.append(' ');
+        }
+    }
+
+    private void appendCell(char c) {
+        frame.append(c);
+        for (int k = 1; k < colWidth; k++) {
+            frame.append(' ');
+        }
+        frame.append(' ');
+    }
+
+    private void appendPadded(String text, int width) {
+        frame.append(text);
+        for (int k = text.length(); k < width; k++) {
+            frame.append(' ');
+        }
+    }
+
+    private void flush() {
+        out.print(frame);
+        out.flush();
+    }
+}
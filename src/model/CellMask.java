@@ -0,0 +1,183 @@
+package model;
+
+import java.util.Arrays;
+
+// one bit per cell, kept in chunks of CHUNK_CELLS that are only allocated once a cell in them is set, so a mask over a
+// large board costs memory for the regions that were touched rather than for the whole area
+public class CellMask {
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_CELLS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_WORD_SHIFT = CHUNK_SHIFT - 6;
+    private static final int CHUNK_WORD_MASK = (1 << CHUNK_WORD_SHIFT) - 1;
+
+    private final long[][] chunks;
+    private final int words;
+    private final int cells;
+
+    public CellMask(int cells) {
+        this.words = (cells + 63) >>> 6;
+        this.chunks = new long[(words + CHUNK_WORD_MASK) >>> CHUNK_WORD_SHIFT][];
+        this.cells = cells;
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    private long[] chunkFor(int wordIndex) {
+        int chunk = wordIndex >>> CHUNK_WORD_SHIFT;
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new long[Math.min(CHUNK_WORD_MASK + 1, words - (chunk << CHUNK_WORD_SHIFT))];
+        }
+        return chunks[chunk];
+    }
+
+    // raw 64-cell words, for compact serialisation and word-at-a-time scans
+    public int wordCount() {
+        return words;
+    }
+
+    public long word(int i) {
+        long[] chunk = chunks[i >>> CHUNK_WORD_SHIFT];
+        return chunk != null ? chunk[i & CHUNK_WORD_MASK] : 0L;
+    }
+
+    public void setWord(int i, long value) {
+        if (value == 0 && chunks[i >>> CHUNK_WORD_SHIFT] == null) return;
+        chunkFor(i)[i & CHUNK_WORD_MASK] = value;
+    }
+
+    public boolean get(int index) {
+        long[] chunk = chunks[index >>> CHUNK_SHIFT];
+        return chunk != null && (chunk[(index >>> 6) & CHUNK_WORD_MASK] & (1L << index)) != 0;
+    }
+
+    public void set(int index) {
+        chunkFor(index >>> 6)[(index >>> 6) & CHUNK_WORD_MASK] |= 1L << index;
+    }
+
+    public void clear(int index) {
+        long[] chunk = chunks[index >>> CHUNK_SHIFT];
+        if (chunk != null) chunk[(index >>> 6) & CHUNK_WORD_MASK] &= ~(1L << index);
+    }
+
+    // chunks stay allocated, the next game on the board usually touches the same regions again
+    public void clear() {
+        for (long[] chunk : chunks) {
+            if (chunk != null) Arrays.fill(chunk, 0L);
+        }
+    }
+
+    public void or(CellMask other) {
+        for (int c = 0; c < chunks.length; c++) {
+            long[] theirs = other.chunks[c];
+            if (theirs == null) continue;
+            long[] mine = chunkFor(c << CHUNK_WORD_SHIFT);
+            for (int i = 0; i < theirs.length; i++) {
+                mine[i] |= theirs[i];
+            }
+        }
+    }
+
+    public boolean intersects(CellMask other) {
+        for (int c = 0; c < chunks.length; c++) {
+            long[] mine = chunks[c];
+            long[] theirs = other.chunks[c];
+            if (mine == null || theirs == null) continue;
+            for (int i = 0; i < mine.length; i++) {
+                if ((mine[i] & theirs[i]) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isSubsetOf(CellMask other) {
+        for (int c = 0; c < chunks.length; c++) {
+            long[] mine = chunks[c];
+            if (mine == null) continue;
+            long[] theirs = other.chunks[c];
+            for (int i = 0; i < mine.length; i++) {
+                if ((mine[i] & ~(theirs != null ? theirs[i] : 0L)) != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        for (long[] chunk : chunks) {
+            if (chunk == null) continue;
+            for (long word : chunk) {
+                if (word != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long[] chunk : chunks) {
+            if (chunk == null) continue;
+            for (long word : chunk) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    public int nextClearBit(int from) {
+        int wordIndex = from >>> 6;
+        if (wordIndex >= words) return -1;
+
+        long word = clearBits(wordIndex, null) & (-1L << from);
+        while (true) {
+            if (word != 0) return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            if (++wordIndex == words) return -1;
+            word = clearBits(wordIndex, null);
+        }
+    }
+
+    // counts clear cells, optionally restricted to the cells set in `within`
+    public int countClear(CellMask within) {
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(clearBits(i, within));
+        }
+        return count;
+    }
+
+    // index of the k-th (0-based) clear cell, optionally restricted to the cells set in `within`
+    public int selectClear(int k, CellMask within) {
+        for (int i = 0; i < words; i++) {
+            long word = clearBits(i, within);
+            int count = Long.bitCount(word);
+            if (k < count) {
+                for (int j = 0; j < k; j++) {
+                    word &= word - 1; // drop the lowest set bit
+                }
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            k -= count;
+        }
+        return -1;
+    }
+
+    private long clearBits(int wordIndex, CellMask within) {
+        long word = ~word(wordIndex);
+        if (wordIndex == words - 1 && (cells & 63) != 0) {
+            word &= (1L << cells) - 1; // bits past the last cell are never clear cells
+        }
+        return within != null ? word & within.word(wordIndex) : word;
+    }
+
+    public int nextSetBit(int from) {
+        int wordIndex = from >>> 6;
+        if (wordIndex >= words) return -1;
+
+        long word = word(wordIndex) & (-1L << from);
+        while (true) {
+            if (word != 0) return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            if (++wordIndex == words) return -1;
+            word = word(wordIndex);
+        }
+    }
+}
@@ -1,46 +1,106 @@
 package model;
 
-import java.util.Objects;
-
+// a cell by row and column, labelled like a spreadsheet: columns A..Z, AA.., rows from 1
 public class Coordinates {
+    // instances for this top-left corner are shared, which covers every cell of the usual boards;
+    // cells further out are created on demand, so large boards cost nothing up front
+    private static final int CACHED_SIZE = 32;
+    private static final Coordinates[] CACHE = buildCache();
+    private static final int MAX_COLUMN_LETTERS = 3;
+    private static final int MAX_ROW_DIGITS = 5;
+
     private final int row;
     private final int col;
+    private String label; // built on first use
+
+    private Coordinates(int row, int col) {
+        this.row = row;
+        this.col = col;
+    }
+
+    private static Coordinates[] buildCache() {
+        Coordinates[] cells = new Coordinates[CACHED_SIZE * CACHED_SIZE];
+        for (int row = 0; row < CACHED_SIZE; row++) {
+            for (int col = 0; col < CACHED_SIZE; col++) {
+                cells[row * CACHED_SIZE + col] = new Coordinates(row, col);
+            }
+        }
+        return cells;
+    }
+
+    public static Coordinates of(int row, int col) {
+        if (row < 0 || col < 0) {
+            throw new IllegalArgumentException("Coordinates out of bounds");
+        }
+        if (row < CACHED_SIZE && col < CACHED_SIZE) return CACHE[row * CACHED_SIZE + col];
+        return new Coordinates(row, col);
+    }
 
-    public Coordinates(String input) {
+    // the cell at a row-major index on a board of the given size
+    public static Coordinates ofIndex(int index, int boardSize) {
+        if (index < 0 || index >= boardSize * boardSize) {
+            throw new IllegalArgumentException("Coordinates out of bounds");
+        }
+        return of(index / boardSize, index % boardSize);
+    }
+
+    public static Coordinates parse(String input, int boardSize) {
         if (input == null || input.length() < 2) {
             throw new IllegalArgumentException("Invalid coordinates format");
         }
 
-        char colChar = input.toUpperCase().charAt(0);
-        String rowStr = input.substring(1);
-
-        if (colChar < 'A' || colChar > 'J') {
-            throw new IllegalArgumentException("Column must be between A and J");
+        // reads the characters in place, this runs for every shot received
+        int col = 0;
+        int i = 0;
+        while (i < input.length() && Character.isLetter(input.charAt(i))) {
+            char letter = Character.toUpperCase(input.charAt(i));
+            if (letter < 'A' || letter > 'Z' || i == MAX_COLUMN_LETTERS) {
+                throw new IllegalArgumentException("Invalid column");
+            }
+            col = col * 26 + (letter - 'A' + 1);
+            i++;
+        }
+        if (i == 0 || i == input.length()) {
+            throw new IllegalArgumentException("Invalid coordinates format");
         }
 
-        try {
-            int rowNum = Integer.parseInt(rowStr);
-            if (rowNum < 1 || rowNum > 10) {
-                throw new IllegalArgumentException("Row must be between 1 and 10");
+        int rowNum = 0;
+        for (int start = i; i < input.length(); i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || i - start == MAX_ROW_DIGITS) {
+                throw new IllegalArgumentException("Invalid row number");
             }
-            this.row = rowNum - 1;
-            this.col = colChar - 'A';
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid row number");
+            rowNum = rowNum * 10 + digit;
+        }
+        if (col > boardSize) {
+            throw new IllegalArgumentException("Column must be between A and " + columnLabel(boardSize - 1));
+        }
+        if (rowNum < 1 || rowNum > boardSize) {
+            throw new IllegalArgumentException("Row must be between 1 and " + boardSize);
         }
+        return of(rowNum - 1, col - 1);
     }
 
-    public Coordinates(int row, int col) {
-        if (row < 0 || row >= 10 || col < 0 || col >= 10) {
-            throw new IllegalArgumentException("Coordinates out of bounds");
+    // A..Z, then AA, AB and so on
+    public static String columnLabel(int col) {
+        StringBuilder label = new StringBuilder();
+        for (int n = col + 1; n > 0; n = (n - 1) / 26) {
+            label.append((char) ('A' + (n - 1) % 26));
         }
-        this.row = row;
-        this.col = col;
+        return label.reverse().toString();
     }
 
     public int getRow() { return row; }
     public int getCol() { return col; }
 
+    public int index(int boardSize) {
+        return row * boardSize + col;
+    }
+
+    public boolean isOn(int boardSize) {
+        return row < boardSize && col < boardSize;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -50,11 +110,12 @@ public class Coordinates {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     @Override
     public String toString() {
-        return String.format("%c%d", (char)('A' + col), row + 1);
+        if (label == null) label = columnLabel(col) + (row + 1);
+        return label;
     }
-}
\ No newline at end of file
+}
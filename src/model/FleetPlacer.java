@@ -0,0 +1,103 @@
+package model;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// lays out a complete fleet using precomputed placement masks, one per shape variant and origin
+public class FleetPlacer {
+    // the search tries this many placements before starting over with a fresh shuffle, so one unlucky early choice
+    // costs a bounded amount of work instead of an exponential one
+    private static final int NODE_BUDGET = 20_000;
+    private static final int MAX_RESTARTS = 50;
+    private static final int MAX_UNIFORM_DRAWS = 10_000_000;
+
+    private final ShipPlacements[] placements; // per ship
+    private final int[] searchOrder; // ship indices, largest first: they have the fewest places left to go
+    private final int[][] order; // per ship, a permutation of its placements that is reshuffled while searching
+    private final int words;
+    private final long[] occupied; // per search depth: cells covered by the ships placed so far, plus their borders
+    private int nodesLeft;
+
+    public FleetPlacer(int boardSize, int[] shipSizes) {
+        this.placements = new ShipPlacements[shipSizes.length];
+        this.order = new int[shipSizes.length][];
+        for (int i = 0; i < shipSizes.length; i++) {
+            placements[i] = ShipPlacements.of(boardSize, shipSizes[i]);
+            order[i] = new int[placements[i].count()];
+            for (int p = 0; p < order[i].length; p++) order[i][p] = p;
+        }
+        this.searchOrder = new int[shipSizes.length];
+        for (int i = 0; i < shipSizes.length; i++) searchOrder[i] = i;
+        for (int i = 1; i < shipSizes.length; i++) { // insertion sort, stable so equal ships keep their order
+            int ship = searchOrder[i];
+            int j = i;
+            for (; j > 0 && shipSizes[searchOrder[j - 1]] < shipSizes[ship]; j--) searchOrder[j] = searchOrder[j - 1];
+            searchOrder[j] = ship;
+        }
+        this.words = (boardSize * boardSize + 63) >>> 6;
+        this.occupied = new long[(shipSizes.length + 1) * words];
+    }
+
+    public int ships() {
+        return placements.length;
+    }
+
+    public int[] cells(int ship, int placement) {
+        return placements[ship].cells(placement);
+    }
+
+    // random depth-first search with restarts; throws when the fleet cannot fit or no layout turns up within the budget
+    public void placeFleet(RandomGenerator rng, int[] chosen) {
+        for (int restart = 0; restart < MAX_RESTARTS; restart++) {
+            Arrays.fill(occupied, 0, words, 0L);
+            nodesLeft = NODE_BUDGET;
+            if (place(0, rng, chosen)) return;
+            if (nodesLeft >= 0) throw new IllegalStateException("Fleet does not fit on the board"); // searched it all
+        }
+        throw new IllegalStateException("No layout found for the fleet within " + MAX_RESTARTS + " restarts");
+    }
+
+    // uniform over all legal layouts: every ship is drawn independently and any overlap restarts the whole fleet
+    public void placeFleetUniformly(RandomGenerator rng, int[] chosen) {
+        int draws = 0;
+        restart:
+        while (draws < MAX_UNIFORM_DRAWS) {
+            Arrays.fill(occupied, 0, words, 0L);
+            for (int ship = 0; ship < placements.length; ship++) {
+                draws++;
+                int placement = rng.nextInt(placements[ship].count());
+                if (!placements[ship].fits(placement, occupied, 0)) continue restart;
+                placements[ship].occupy(placement, occupied, 0);
+                chosen[ship] = placement;
+            }
+            return;
+        }
+        throw new IllegalStateException("No uniform layout found for the fleet within " + MAX_UNIFORM_DRAWS + " draws");
+    }
+
+    private boolean place(int depth, RandomGenerator rng, int[] chosen) {
+        if (depth == searchOrder.length) return true;
+
+        int ship = searchOrder[depth];
+        int[] candidates = order[ship];
+        int offset = depth * words;
+        for (int k = 0; k < candidates.length; k++) {
+            if (--nodesLeft < 0) return false;
+
+            // incremental Fisher-Yates, so only the candidates actually tried get shuffled
+            int j = k + rng.nextInt(candidates.length - k);
+            int placement = candidates[j];
+            candidates[j] = candidates[k];
+            candidates[k] = placement;
+
+            if (!placements[ship].fits(placement, occupied, offset)) continue;
+
+            System.arraycopy(occupied, offset, occupied, offset + words, words);
+            placements[ship].occupy(placement, occupied, offset + words);
+            chosen[ship] = placement;
+            if (place(depth + 1, rng, chosen)) return true;
+            if (nodesLeft < 0) return false;
+        }
+        return false;
+    }
+}
@@ -1,32 +1,149 @@
 package model;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
 public class GameConfig {
     private static final int AI_PORT = 12345;
+    private static final int TRIAL_LAYOUTS = 8;
     private GameMode mode;
     private int port;
     private String hostName;
+    private long episodes = 100_000;
+    private long games = 1; // played back to back by the player modes
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long samplerBudgetMillis; // 0 keeps the posterior sampler off
+    private String qTablePath;
+    private long checkpointSeconds = 60;
+    private boolean binaryProtocol = true; // offered to the peer, text is used when it declines
+    private long turnTimeoutMillis = 60_000; // wait for an answer before resending, 0 waits forever
+    private long heartbeatMillis = 1000;     // 0 turns heartbeats off
+    private long reconnectMillis = 30_000;   // how long a dropped session may take to come back
+    private String journalPath; // directory for the game journal, none when unset
+    private int sweepSamples;   // random configurations to try, 0 sweeps the whole grid
+    private long seed = new SplittableRandom().nextLong(); // every random stream of a run is split from this
+    private int boardSize = Board.DEFAULT_SIZE;
+    private int[] fleet = Board.getShipSizes();
+    private RenderMode renderMode = RenderMode.AUTO;
+    private boolean sharedPolicy; // training agents learn into one lock-free table instead of one each
 
 
 
     public boolean validate() {
-        if (mode == null) return false;
+        if (mode == null || !hasValidBoard()) return false;
 
         return switch (mode) {
-            case SERVER -> port > 0;
-            case CLIENT -> port > 0 && hostName != null;
+            case SERVER, AI_SERVER, BOT_SERVER -> port > 0 && games > 0 && hasValidTimeouts();
+            case HOST -> port > 0;
+            case REPLAY -> journalPath != null;
+            case OFFLINE -> journalPath != null && threads > 0;
+            case CLIENT, AI_CLIENT, BOT_CLIENT -> port > 0 && hostName != null && games > 0 && hasValidTimeouts();
             case AI_USER -> {
                 port = AI_PORT;
-                yield true;
+                yield games > 0;
             }
-            case BOT_USER -> true;
+            case BOT_USER -> games > 0;
+            case TRAIN -> episodes > 0 && threads > 0 && samplerBudgetMillis >= 0
+                    && (!sharedPolicy || boardSize <= 256); // the shared table is always dense
+            case SWEEP -> episodes > 0 && threads > 0 && sweepSamples >= 0;
             default -> false;
         };
     }
 
+    private boolean hasValidBoard() {
+        if (boardSize < 1 || boardSize > Board.MAX_SIZE || fleet.length == 0) return false;
+        long shipCells = 0;
+        for (int ship : fleet) {
+            if (ship < 1 || ship > boardSize) return false;
+            shipCells += ship;
+        }
+        if (shipCells > (long) boardSize * boardSize) return false;
+        // the sampler works from the placement tables, the journal stores a cell in one byte
+        if (samplerBudgetMillis > 0 && boardSize > Board.MAX_TABLE_SIZE) return false;
+        if (journalPath != null && boardSize * boardSize > 256) return false;
+        return fleetFits();
+    }
+
+    // ships may not touch, so rule out fleets whose borders cannot fit, then lay the fleet out a few times: a fleet the
+    // placer only manages now and then would fail a game later, in the middle of a run
+    private boolean fleetFits() {
+        long footprint = 0;
+        for (int ship : fleet) {
+            footprint += minimumFootprint(ship);
+        }
+        if (footprint > (long) (boardSize + 1) * (boardSize + 1)) return false;
+
+        try {
+            Board board = new Board(boardSize, fleet, new SplittableRandom(seed));
+            for (int layout = 1; layout < TRIAL_LAYOUTS; layout++) {
+                board.generateMap();
+            }
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    // a ship grown by one cell to the right and below; grown ships never overlap and all fit a board one cell larger
+    private static int minimumFootprint(int shipSize) {
+        int smallest = Integer.MAX_VALUE;
+        for (int[][] shape : Board.getShapes(shipSize)) {
+            Set<Integer> grown = new HashSet<>();
+            for (int[] cell : shape) {
+                for (int dr = 0; dr <= 1; dr++) {
+                    for (int dc = 0; dc <= 1; dc++) {
+                        grown.add((cell[0] + dr) * (shipSize + 2) + cell[1] + dc);
+                    }
+                }
+            }
+            smallest = Math.min(smallest, grown.size());
+        }
+        return smallest;
+    }
+
+    private boolean hasValidTimeouts() {
+        return turnTimeoutMillis >= 0 && heartbeatMillis >= 0 && reconnectMillis >= 0;
+    }
+
     public GameMode getMode() { return mode; }
     public void setMode(GameMode mode) { this.mode = mode; }
     public int getPort() { return port; }
     public void setPort(int port) { this.port = port; }
     public String getHostName() { return hostName; }
     public void setHostName(String hostName) { this.hostName = hostName; }
+    public long getEpisodes() { return episodes; }
+    public void setEpisodes(long episodes) { this.episodes = episodes; }
+    public long getGames() { return games; }
+    public void setGames(long games) { this.games = games; }
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    public long getSamplerBudgetMillis() { return samplerBudgetMillis; }
+    public void setSamplerBudgetMillis(long samplerBudgetMillis) { this.samplerBudgetMillis = samplerBudgetMillis; }
+    public String getQTablePath() { return qTablePath; }
+    public void setQTablePath(String qTablePath) { this.qTablePath = qTablePath; }
+    public long getCheckpointSeconds() { return checkpointSeconds; }
+    public void setCheckpointSeconds(long checkpointSeconds) { this.checkpointSeconds = checkpointSeconds; }
+    public boolean isBinaryProtocol() { return binaryProtocol; }
+    public void setBinaryProtocol(boolean binaryProtocol) { this.binaryProtocol = binaryProtocol; }
+    public long getTurnTimeoutMillis() { return turnTimeoutMillis; }
+    public void setTurnTimeoutMillis(long turnTimeoutMillis) { this.turnTimeoutMillis = turnTimeoutMillis; }
+    public long getHeartbeatMillis() { return heartbeatMillis; }
+    public void setHeartbeatMillis(long heartbeatMillis) { this.heartbeatMillis = heartbeatMillis; }
+    public long getReconnectMillis() { return reconnectMillis; }
+    public void setReconnectMillis(long reconnectMillis) { this.reconnectMillis = reconnectMillis; }
+    public String getJournalPath() { return journalPath; }
+    public void setJournalPath(String journalPath) { this.journalPath = journalPath; }
+    public int getSweepSamples() { return sweepSamples; }
+    public void setSweepSamples(int sweepSamples) { this.sweepSamples = sweepSamples; }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    public int getBoardSize() { return boardSize; }
+    public void setBoardSize(int boardSize) { this.boardSize = boardSize; }
+    public int[] getFleet() { return fleet; }
+    public void setFleet(int[] fleet) { this.fleet = fleet; }
+    public RenderMode getRenderMode() { return renderMode; }
+    public void setRenderMode(RenderMode renderMode) { this.renderMode = renderMode; }
+    public boolean isSharedPolicy() { return sharedPolicy; }
+    public void setSharedPolicy(boolean sharedPolicy) { this.sharedPolicy = sharedPolicy; }
 }
\ No newline at end of file
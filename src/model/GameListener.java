@@ -0,0 +1,12 @@
+package model;
+
+// follows a GameSession turn by turn; side 0 is the first shooter, side 1 the second
+public interface GameListener {
+    GameListener NONE = new GameListener() {};
+
+    // the shot is chosen and about to be resolved
+    default void onShot(int side, Coordinates shot) {}
+
+    // the shot has been resolved and its shooter told the result
+    default void onResult(int side, Coordinates shot, String result) {}
+}
@@ -1,5 +1,25 @@
 package model;
 
 public enum GameMode {
-    SERVER, CLIENT, BOT_USER, AI_USER
-}
\ No newline at end of file
+    SERVER, CLIENT, AI_SERVER, AI_CLIENT, BOT_SERVER, BOT_CLIENT, BOT_USER, AI_USER, TRAIN, HOST, REPLAY, OFFLINE, SWEEP;
+
+    // plays against an opponent over a NetworkHandler
+    public boolean isNetworked() {
+        return isServer() || this == CLIENT || this == AI_CLIENT || this == BOT_CLIENT;
+    }
+
+    // accepts the connection instead of dialling
+    public boolean isServer() {
+        return this == SERVER || this == AI_SERVER || this == BOT_SERVER;
+    }
+
+    // the random bot picks this side's shots
+    public boolean isBot() {
+        return this == BOT_USER || this == BOT_SERVER || this == BOT_CLIENT;
+    }
+
+    // the agent picks this side's shots
+    public boolean isAgent() {
+        return this == AI_USER || this == AI_SERVER || this == AI_CLIENT;
+    }
+}
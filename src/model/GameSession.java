@@ -0,0 +1,74 @@
+package model;
+
+/*
+ * The rules of one game, with no console, socket or clock: two shooters take turns firing at each other's board until
+ * one answers "last ship sunk". Each side fires at most once per cell of the board it aims at, and a shooter that runs
+ * out of shots sits out the rest of the game. A solo session has a single shooter and a target board that never fires
+ * back, which is how self-play trains.
+ * The caller lays out the boards before each play(), so one session can be reused for any number of games, and
+ * a game allocates nothing beyond what the shooters and the listener do.
+ */
+public class GameSession {
+    public static final int NO_WINNER = -1;
+
+    private final Shooter[] shooters;
+    private final Board[] boards; // boards[side] is that side's own fleet, the one the other side fires at
+    private final GameListener listener;
+    private final int[] shots = new int[2];
+    private final boolean[] outOfShots = new boolean[2];
+
+    public GameSession(Shooter first, Board firstBoard, Shooter second, Board secondBoard, GameListener listener) {
+        this.shooters = new Shooter[] {first, second};
+        this.boards = new Board[] {firstBoard, secondBoard};
+        this.listener = listener != null ? listener : GameListener.NONE;
+    }
+
+    public static GameSession solo(Shooter shooter, Board target, GameListener listener) {
+        return new GameSession(shooter, null, null, target, listener);
+    }
+
+    // plays one game from the boards' current layouts, the first shooter starts; the winning side or NO_WINNER
+    public int play() {
+        for (int side = 0; side < 2; side++) {
+            shots[side] = 0;
+            outOfShots[side] = false;
+            if (shooters[side] != null) shooters[side].startNewGame();
+        }
+
+        int side = 0;
+        while (true) {
+            if (canShoot(side)) {
+                if (fire(side)) return side;
+            } else if (!canShoot(1 - side)) {
+                return NO_WINNER;
+            }
+            side = 1 - side;
+        }
+    }
+
+    public int getShots(int side) {
+        return shots[side];
+    }
+
+    private boolean canShoot(int side) {
+        Board target = boards[1 - side];
+        return shooters[side] != null && !outOfShots[side] && shots[side] < target.getSize() * target.getSize();
+    }
+
+    // true when the shot sank the last ship
+    private boolean fire(int side) {
+        Shooter shooter = shooters[side];
+        Coordinates shot = shooter.getNextShot();
+        if (shot == null) {
+            outOfShots[side] = true;
+            return false;
+        }
+
+        listener.onShot(side, shot);
+        shots[side]++;
+        String result = boards[1 - side].checkShot(shot);
+        shooter.updateFromResult(result);
+        listener.onResult(side, shot, result);
+        return result.equals("last ship sunk");
+    }
+}
@@ -0,0 +1,36 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+// the bot: a uniformly random cell it has not fired at yet
+public class RandomShooter implements Shooter {
+    private final int boardSize;
+    private final ShotSet shotsFired;
+    private final RandomGenerator random;
+
+    public RandomShooter(int boardSize, RandomGenerator random) {
+        this.boardSize = boardSize;
+        this.shotsFired = new ShotSet(boardSize);
+        this.random = random;
+    }
+
+    @Override
+    public void startNewGame() {
+        shotsFired.clear();
+    }
+
+    @Override
+    public Coordinates getNextShot() {
+        int cell = shotsFired.randomUnshot(random);
+        if (cell < 0) return null; // all positions tried
+
+        Coordinates shot = Coordinates.ofIndex(cell, boardSize);
+        shotsFired.add(shot);
+        return shot;
+    }
+
+    @Override
+    public void updateFromResult(String result) {
+        // a bot does not learn
+    }
+}
@@ -0,0 +1,5 @@
+package model;
+
+public enum RenderMode {
+    AUTO, ANSI, PLAIN, NONE
+}
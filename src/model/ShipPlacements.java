@@ -0,0 +1,110 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// every legal position of one ship size on an empty board, built from the Board shape catalogue
+public class ShipPlacements {
+    private static final Map<Long, ShipPlacements> CACHE = new ConcurrentHashMap<>();
+
+    private final int shipSize;
+    private final int[][] cells;
+    private final int[][] covering;
+
+    // bit masks per placement, `words` longs each: the ship cells, and the cells plus their no-touch border
+    private final int words;
+    private final long[] cellWords;
+    private final long[] haloWords;
+
+    private ShipPlacements(int boardSize, int shipSize) {
+        this.shipSize = shipSize;
+
+        List<int[]> placements = new ArrayList<>();
+        for (int[][] variant : variants(shipSize)) {
+            for (int row = 0; row < boardSize; row++) {
+                for (int col = 0; col < boardSize; col++) {
+                    int[] placement = new int[variant.length];
+                    boolean fits = true;
+                    for (int i = 0; i < variant.length && fits; i++) {
+                        int r = row + variant[i][0];
+                        int c = col + variant[i][1];
+                        fits = r < boardSize && c < boardSize;
+                        placement[i] = r * boardSize + c;
+                    }
+                    if (fits) placements.add(placement);
+                }
+            }
+        }
+        this.cells = placements.toArray(new int[0][]);
+
+        int[] counts = new int[boardSize * boardSize];
+        for (int[] placement : cells) {
+            for (int cell : placement) counts[cell]++;
+        }
+        this.covering = new int[boardSize * boardSize][];
+        for (int cell = 0; cell < covering.length; cell++) {
+            covering[cell] = new int[counts[cell]];
+            counts[cell] = 0;
+        }
+        for (int p = 0; p < cells.length; p++) {
+            for (int cell : cells[p]) covering[cell][counts[cell]++] = p;
+        }
+
+        this.words = (boardSize * boardSize + 63) >>> 6;
+        this.cellWords = new long[cells.length * words];
+        this.haloWords = new long[cells.length * words];
+        for (int p = 0; p < cells.length; p++) {
+            for (int cell : cells[p]) {
+                cellWords[p * words + (cell >>> 6)] |= 1L << cell;
+                int row = cell / boardSize;
+                int col = cell % boardSize;
+                for (int r = Math.max(0, row - 1); r <= Math.min(boardSize - 1, row + 1); r++) {
+                    for (int c = Math.max(0, col - 1); c <= Math.min(boardSize - 1, col + 1); c++) {
+                        int neighbour = r * boardSize + c;
+                        haloWords[p * words + (neighbour >>> 6)] |= 1L << neighbour;
+                    }
+                }
+            }
+        }
+    }
+
+    public static ShipPlacements of(int boardSize, int shipSize) {
+        return CACHE.computeIfAbsent(((long) boardSize << 32) | shipSize, key -> new ShipPlacements(boardSize, shipSize));
+    }
+
+    // distinct shapes of the given size, each as listed and transposed like Board.placeShip does
+    private static List<int[][]> variants(int shipSize) {
+        Map<String, int[][]> distinct = new LinkedHashMap<>();
+        for (int[][] shape : Board.getShapes(shipSize)) {
+            for (boolean rotate : new boolean[] {false, true}) {
+                int[][] variant = new int[shape.length][];
+                for (int i = 0; i < shape.length; i++) {
+                    variant[i] = rotate ? new int[] {shape[i][1], shape[i][0]} : new int[] {shape[i][0], shape[i][1]};
+                }
+                Arrays.sort(variant, Comparator.<int[]>comparingInt(c -> c[0]).thenComparingInt(c -> c[1]));
+                distinct.putIfAbsent(Arrays.deepToString(variant), variant);
+            }
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    public int shipSize() { return shipSize; }
+    public int count() { return cells.length; }
+    public int[] cells(int placement) { return cells[placement]; }
+    public int[] covering(int cell) { return covering[cell]; }
+
+    // true if the placement shares no cell with the given mask
+    boolean fits(int placement, long[] mask, int offset) {
+        for (int w = 0; w < words; w++) {
+            if ((cellWords[placement * words + w] & mask[offset + w]) != 0) return false;
+        }
+        return true;
+    }
+
+    // marks the placement and its border in the given mask
+    void occupy(int placement, long[] mask, int offset) {
+        for (int w = 0; w < words; w++) {
+            mask[offset + w] |= haloWords[placement * words + w];
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+// one side's shot selection in a GameSession: the agent, a bot, a person at the console
+public interface Shooter {
+    // called before every game
+    void startNewGame();
+
+    // the next cell to fire at, null when there is nothing left to try
+    Coordinates getNextShot();
+
+    // the result of the shot last returned by getNextShot
+    void updateFromResult(String result);
+}
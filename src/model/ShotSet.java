@@ -0,0 +1,47 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+public class ShotSet extends CellMask {
+    private final int boardSize;
+
+    public ShotSet(int boardSize) {
+        super(boardSize * boardSize);
+        this.boardSize = boardSize;
+    }
+
+    public void add(Coordinates coords) {
+        set(coords.index(boardSize));
+    }
+
+    public boolean contains(Coordinates coords) {
+        return get(coords.index(boardSize));
+    }
+
+    public boolean contains(int index) {
+        return get(index);
+    }
+
+    public int size() {
+        return cardinality();
+    }
+
+    public int countUnshot() {
+        return countClear(null);
+    }
+
+    public int nextUnshot(int from) {
+        return nextClearBit(from);
+    }
+
+    public int randomUnshot(RandomGenerator rng) {
+        return randomUnshot(rng, null);
+    }
+
+    // uniformly random unshot cell among the cells set in `within` (all cells if null), -1 if there is none
+    public int randomUnshot(RandomGenerator rng, CellMask within) {
+        int candidates = countClear(within);
+        if (candidates == 0) return -1;
+        return selectClear(rng.nextInt(candidates), within);
+    }
+}
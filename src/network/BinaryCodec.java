@@ -0,0 +1,85 @@
+package network;
+
+import model.Board;
+import model.Coordinates;
+
+import java.nio.ByteBuffer;
+
+/*
+ * Three-byte frames for the binary protocol: the sender's sequence number, a command code and a cell index, or NO_CELL
+ * when the message carries no shot. Decoding hands out one shared Message per (command, cell) pair, so nothing is
+ * allocated per frame.
+ */
+public final class BinaryCodec {
+    public static final int FRAME_BYTES = 3;
+    public static final String HELLO = "hello";
+    public static final String BINARY = "binary";
+    public static final String TEXT = "text";
+
+    private static final int NO_CELL = 0xFF;
+    private static final String[] COMMANDS = {"start", "miss", "hit", "hit and sunk", "last ship sunk", "ping"};
+    private static final int CELLS = 100;
+    private static final Message[][] MESSAGES = buildMessages();
+
+    public static final Message PING = MESSAGES[5][CELLS]; // heartbeat, never handed to the game
+
+    private BinaryCodec() {}
+
+    private static Message[][] buildMessages() {
+        Message[][] messages = new Message[COMMANDS.length][CELLS + 1];
+        for (int code = 0; code < COMMANDS.length; code++) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                String cellName = Coordinates.ofIndex(cell, Board.DEFAULT_SIZE).toString();
+                messages[code][cell] = new Message(COMMANDS[code], cellName);
+            }
+            messages[code][CELLS] = new Message(COMMANDS[code], null);
+        }
+        return messages;
+    }
+
+    public static Message hello(boolean binary) {
+        return new Message(HELLO, binary ? BINARY : TEXT);
+    }
+
+    public static boolean isHello(Message message) {
+        return message.command().equals(HELLO);
+    }
+
+    public static boolean isPing(Message message) {
+        return message.command().equals(PING.command());
+    }
+
+    public static void encode(Message message, int sequence, ByteBuffer out) {
+        int code = switch (message.command()) {
+            case "start" -> 0;
+            case "miss" -> 1;
+            case "hit" -> 2;
+            case "hit and sunk" -> 3;
+            case "last ship sunk" -> 4;
+            case "ping" -> 5;
+            default -> throw new IllegalArgumentException("No binary code for command: " + message.command());
+        };
+        int cell = message.coordinates() != null
+                ? Coordinates.parse(message.coordinates(), Board.DEFAULT_SIZE).index(Board.DEFAULT_SIZE)
+                : NO_CELL;
+        out.put((byte) sequence).put((byte) code).put((byte) cell);
+    }
+
+    // sequence number of the frame at the buffer's position, read before decode consumes it
+    public static int sequence(ByteBuffer in) {
+        return in.get(in.position()) & 0xFF;
+    }
+
+    // null until a whole frame is buffered
+    public static Message decode(ByteBuffer in) {
+        if (in.remaining() < FRAME_BYTES) return null;
+
+        in.get(); // sequence
+        int code = in.get() & 0xFF;
+        int cell = in.get() & 0xFF;
+        if (code >= COMMANDS.length || (cell >= CELLS && cell != NO_CELL)) {
+            throw new IllegalArgumentException("Malformed frame: " + code + "/" + cell);
+        }
+        return MESSAGES[code][cell == NO_CELL ? CELLS : cell];
+    }
+}
@@ -0,0 +1,10 @@
+package network;
+
+// the opponent went away and could not be reached again, the match cannot continue
+public class ConnectionLostException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ConnectionLostException(String message) {
+        super(message);
+    }
+}
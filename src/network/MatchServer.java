@@ -0,0 +1,282 @@
+package network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+ * Hosts many matches on one selector thread. Every incoming client joins a lobby and is paired with the next one;
+ * the pair then plays through the usual text protocol, relayed line by line. Both players connect in client mode,
+ * so both open with "start" - only the first start of a match is relayed. The other player receives it as the sign that
+ * its own opening was dropped, and fires that same shot again as its answer.
+ * A client may open with "hello;binary" to switch its side to binary frames; the server translates between the
+ * two protocols, so a binary client can play a telnet user. Sequence numbers are per connection: resent frames are
+ * dropped here and heartbeats are answered, never relayed. Sessions are declined, a dropped client loses its match.
+ */
+public class MatchServer implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ArrayDeque<Connection> lobby;
+    private int activeMatches;
+    private long completedMatches;
+
+    public MatchServer(int port) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.lobby = new ArrayDeque<>();
+
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public void run() throws IOException {
+        System.out.println("Hosting matches on port " + getPort());
+        while (serverChannel.isOpen()) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) continue;
+
+                try {
+                    if (key.isAcceptable()) accept();
+                    if (key.isValid() && key.isReadable()) read((Connection) key.attachment());
+                    if (key.isValid() && key.isWritable()) flush((Connection) key.attachment());
+                } catch (IOException e) {
+                    if (key.attachment() instanceof Connection connection) {
+                        disconnect(connection);
+                    } else {
+                        System.out.println("Accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    public int getPort() { return serverChannel.socket().getLocalPort(); }
+    public int getActiveMatches() { return activeMatches; }
+    public long getCompletedMatches() { return completedMatches; }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+
+            Connection opponent = lobby.poll();
+            if (opponent == null) {
+                lobby.add(connection);
+            } else {
+                startMatch(opponent, connection);
+            }
+        }
+    }
+
+    private void startMatch(Connection first, Connection second) throws IOException {
+        Match match = new Match();
+        first.match = match;
+        second.match = match;
+        first.peer = second;
+        second.peer = first;
+        activeMatches++;
+
+        // lines sent while waiting in the lobby are replayed now that there is someone to receive them
+        for (Connection connection : List.of(first, second)) {
+            for (Message message : connection.takePending()) {
+                relay(connection, message);
+            }
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            disconnect(connection);
+            return;
+        }
+
+        ByteBuffer in = connection.in;
+        in.flip();
+        try {
+            Message message;
+            while (connection.channel.isOpen() && (message = nextMessage(connection)) != null) {
+                if (connection.binary && BinaryCodec.isPing(message)) {
+                    send(connection, message);
+                } else if (BinaryCodec.isHello(message)) {
+                    boolean binary = BinaryCodec.BINARY.equals(message.coordinates());
+                    send(connection, BinaryCodec.hello(binary)); // answered in text, frames start after it
+                    connection.binary = binary;
+                } else if (connection.peer == null) {
+                    connection.pending.add(message);
+                } else {
+                    relay(connection, message);
+                }
+            }
+        } catch (IllegalArgumentException e) { // malformed frame or line, not our protocol
+            disconnect(connection);
+            return;
+        }
+        if (!connection.channel.isOpen()) return; // the match ended on this read, there is nothing left to keep
+        in.compact();
+
+        if (!in.hasRemaining()) { // no newline in a full buffer, not our protocol
+            disconnect(connection);
+        }
+    }
+
+    // the next complete message in the connection's input, null until more bytes arrive
+    private Message nextMessage(Connection connection) {
+        ByteBuffer in = connection.in;
+        while (connection.binary) {
+            if (in.remaining() < BinaryCodec.FRAME_BYTES) return null;
+
+            int sequence = BinaryCodec.sequence(in);
+            Message message = BinaryCodec.decode(in);
+            if (BinaryCodec.isPing(message)) return message;
+            if (sequence != connection.lastReceivedSequence) {
+                connection.lastReceivedSequence = sequence;
+                return message;
+            }
+            // a resend of the frame before, already relayed
+        }
+
+        for (int i = in.position(); i < in.limit(); i++) {
+            if (in.get(i) != '\n') continue;
+
+            String line = new String(in.array(), in.position(), i - in.position(), StandardCharsets.UTF_8).trim();
+            in.position(i + 1);
+            if (!line.isEmpty()) return Message.parse(line);
+        }
+        return null;
+    }
+
+    private void relay(Connection from, Message message) throws IOException {
+        Match match = from.match;
+
+        if (message.command().equals("start")) {
+            if (match.started) return; // the opponent already opened, this player answers with the same shot instead
+            match.started = true;
+        }
+
+        send(from.peer, message);
+        if (message.command().equals("last ship sunk")) {
+            finishMatch(match, from);
+        }
+    }
+
+    // encodes in the receiver's protocol, straight into its reusable output buffer
+    private void send(Connection to, Message message) throws IOException {
+        ByteBuffer out = to.out;
+        if (to.binary) {
+            if (out.remaining() < BinaryCodec.FRAME_BYTES) throw new IOException("Peer is not reading");
+            BinaryCodec.encode(message, to.nextSequence, out);
+            if (!BinaryCodec.isPing(message)) to.nextSequence = (to.nextSequence + 1) & 0xFF;
+        } else {
+            byte[] line = message.format().getBytes(StandardCharsets.UTF_8);
+            if (out.remaining() < line.length) throw new IOException("Peer is not reading");
+            out.put(line);
+        }
+        flush(to);
+    }
+
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        out.flip();
+        try {
+            connection.channel.write(out);
+        } finally {
+            out.compact();
+        }
+        if (out.position() > 0) {
+            connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+            return;
+        }
+        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_WRITE);
+        if (connection.closeWhenFlushed) close(connection);
+    }
+
+    private void finishMatch(Match match, Connection from) throws IOException {
+        if (match.finished) return;
+        match.finished = true;
+        activeMatches--;
+        completedMatches++;
+
+        for (Connection connection : List.of(from, from.peer)) {
+            connection.peer = null;
+            connection.closeWhenFlushed = true;
+            if (connection.out.position() == 0) close(connection);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        lobby.remove(connection);
+        Connection peer = connection.peer;
+        if (peer != null && !connection.match.finished) {
+            connection.match.finished = true;
+            activeMatches--;
+            peer.peer = null;
+            close(peer); // the match cannot go on without both players
+        }
+        close(connection);
+    }
+
+    private void close(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private static class Match {
+        boolean started;
+        boolean finished;
+    }
+
+    private static class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+        final ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+        final List<Message> pending = new ArrayList<>();
+        SelectionKey key;
+        Match match;
+        Connection peer;
+        boolean binary;
+        int nextSequence;
+        int lastReceivedSequence = -1;
+        boolean closeWhenFlushed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        List<Message> takePending() {
+            List<Message> messages = new ArrayList<>(pending);
+            pending.clear();
+            return messages;
+        }
+    }
+}
@@ -2,6 +2,13 @@ package network;
 
 public record Message(String command, String coordinates) {
 
+    public static Message parse(String line) {
+        int separator = line.indexOf(';');
+        return separator < 0
+                ? new Message(line, null)
+                : new Message(line.substring(0, separator), line.substring(separator + 1));
+    }
+
     public String format() {
         return coordinates != null ?
                 command + ";" + coordinates + "\n" :
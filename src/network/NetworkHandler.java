@@ -1,100 +1,460 @@
 package network;
 
+import model.Board;
+import model.GameConfig;
 import model.GameMode;
+import model.RenderMode;
+import telemetry.MessageEvent;
 
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.*;
 
+/*
+ * One connection to the opponent. A reader thread decodes incoming messages into a queue, so a waiting turn wakes as
+ * soon as the bytes arrive, and a scheduler sends heartbeats and notices a silent peer. With the binary protocol the
+ * server also hands out a session id: a client that drops reconnects with it, both sides resend their last message
+ * and the sequence byte lets the receiver discard what it had already seen.
+ */
 public class NetworkHandler implements AutoCloseable {
-    private final Socket socket;
-    private final BufferedReader reader;
-    private final PrintWriter writer;
-    private ServerSocket serverSocket;
-    private Message lastSentMessage;
-    private int retryCount = 0;
+    private static final int BUFFER_BYTES = 1024;
+    private static final int INBOX_CAPACITY = 64; // a peer only runs ahead by the odd relayed line, never this far
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_RETRIES = 3;
+    private static final int MISSED_HEARTBEATS = 3;
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+    private static final String SESSION = "session";
+    private static final String RESUME = "resume";
+    private static final Message CLOSED = new Message("closed", null);
+
     private final GameMode mode;
+    private final String host;
+    private final int port;
+    private final boolean binaryAllowed;
+    private final boolean logMessages; // off for headless games, printing every message would pace the match
+    private final long turnTimeoutMillis;
+    private final long heartbeatMillis;
+    private final long reconnectMillis;
+    private final ServerSocket serverSocket;
+    private final ByteBuffer in;  // received bytes not yet consumed, between position and limit
+    private final ByteBuffer out; // one encoded message, reused for every send
+    private final BlockingQueue<Message> inbox;
+    private final ScheduledExecutorService scheduler;
+    private final Thread reader;
 
-    public NetworkHandler(GameMode mode, int port, String host) throws IOException {
-        this.mode = mode;
-        if (mode == GameMode.SERVER) {
-            serverSocket = new ServerSocket(port);
-            socket = serverSocket.accept();
-            serverSocket.close();
+    private volatile Socket socket;
+    private InputStream input;   // reader thread, once the handshake is done
+    private OutputStream output; // guarded by this
+    private volatile boolean binary;
+    private volatile String sessionId;
+    private volatile boolean resuming;
+    private volatile boolean closed;
+    private volatile long lastReceivedNanos;
+    private volatile long lastSentNanos;
+    private int receivedSequence;
+    private int lastReceivedSequence = -1;
+    private int nextSequence;        // guarded by this
+    private Message lastSentMessage; // guarded by this, cleared once the opponent answers
+    private int lastSentSequence;    // guarded by this
+
+    public NetworkHandler(GameConfig config) throws IOException {
+        this.mode = config.getMode();
+        this.host = config.getHostName();
+        this.port = config.getPort();
+        // a binary shot is one byte per cell of the standard board, other sizes stay on text
+        this.binaryAllowed = config.isBinaryProtocol() && config.getBoardSize() == Board.DEFAULT_SIZE;
+        this.logMessages = config.getRenderMode() != RenderMode.NONE;
+        this.turnTimeoutMillis = config.getTurnTimeoutMillis();
+        this.heartbeatMillis = config.getHeartbeatMillis();
+        this.reconnectMillis = config.getReconnectMillis();
+        this.in = ByteBuffer.allocate(BUFFER_BYTES).flip();
+        this.out = ByteBuffer.allocate(BUFFER_BYTES);
+        this.inbox = new ArrayBlockingQueue<>(INBOX_CAPACITY);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "network-heartbeat"));
+
+        if (mode.isServer()) {
+            serverSocket = new ServerSocket(port); // stays open so a dropped client can come back
+            attach(serverSocket.accept());
         } else {
-            socket = new Socket(host, port);
+            serverSocket = null;
+            attach(new Socket(host, port));
         }
 
-        reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
-        writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        // the client proposes the binary protocol, the server answers when the hello arrives
+        if (!mode.isServer() && binaryAllowed) {
+            negotiate();
+        }
+
+        lastReceivedNanos = System.nanoTime();
+        reader = daemon(this::readLoop, "network-reader");
+        reader.start();
     }
 
+    public boolean isBinary() { return binary; }
+    public String getSessionId() { return sessionId; }
+
     public void sendMessage(Message message) {
-        writer.print(message.format());
-        writer.flush();
-        System.out.println("Sent: " + message.format().trim());
-        lastSentMessage = message;
-        retryCount = 0;
+        MessageEvent event = new MessageEvent();
+        event.begin();
+        synchronized (this) {
+            lastSentMessage = message;
+            lastSentSequence = nextSequence;
+            nextSequence = (nextSequence + 1) & 0xFF;
+            Socket current = socket;
+            try {
+                write(message, lastSentSequence);
+            } catch (IOException e) {
+                connectionTrouble(e, current);
+            }
+        }
+        commit(event, "sent", message, 0);
+        if (logMessages) System.out.println("Sent: " + message.format().trim()); // checked first, formatting allocates
     }
 
     public Message receiveMessage() {
+        MessageEvent event = new MessageEvent();
+        event.begin();
+        int retries = 0;
+        while (true) {
+            long timeout;
+            synchronized (this) {
+                timeout = lastSentMessage != null ? turnTimeoutMillis : 0;
+            }
+
+            Message message;
+            try {
+                message = timeout > 0 ? inbox.poll(timeout, TimeUnit.MILLISECONDS) : inbox.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionLostException("Interrupted while waiting for the opponent");
+            }
+
+            if (message == CLOSED) {
+                inbox.add(CLOSED); // every later call fails the same way
+                throw new ConnectionLostException("Connection lost");
+            }
+            if (message != null) {
+                synchronized (this) {
+                    lastSentMessage = null;
+                }
+                commit(event, "received", message, retries);
+                return message;
+            }
+
+            if (++retries > MAX_RETRIES) {
+                throw new ConnectionLostException("No response after " + MAX_RETRIES + " retries");
+            }
+            log("Waiting for response... ( " + retries + "/" + MAX_RETRIES + ")");
+            resend();
+        }
+    }
+
+    private void commit(MessageEvent event, String direction, Message message, int retries) {
+        if (!event.shouldCommit()) return;
+        event.direction = direction;
+        event.command = message.command();
+        event.coordinates = message.coordinates();
+        event.binary = binary;
+        event.retries = retries;
+        event.commit();
+    }
+
+    private void negotiate() throws IOException {
+        writeLine(BinaryCodec.hello(true));
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
         try {
-            // Set timeout based on game mode
-            boolean isHumanPlayer = (mode == GameMode.SERVER || mode == GameMode.CLIENT);
-            socket.setSoTimeout(lastSentMessage != null ? (isHumanPlayer ? 60000 : 1000) : 0);
-
-            String line = reader.readLine();
-            if (line != null) {
-                retryCount = 0;
-                lastSentMessage = null;
-                return parseMessage(line);
+            String line;
+            while ((line = readLine()) != null) {
+                Message reply = Message.parse(line);
+                if (reply.command().equals(SESSION)) {
+                    sessionId = reply.coordinates();
+                    continue;
+                }
+                if (BinaryCodec.isHello(reply)) {
+                    binary = reply.equals(BinaryCodec.hello(true));
+                    break;
+                }
+                enqueue(reply); // game traffic relayed ahead of the answer, still text
             }
         } catch (SocketTimeoutException e) {
-            retryCount++;
-            if (retryCount >= 3) {
-                System.out.println("No response received. Would you like to retry? (y/n)");
-                Scanner scanner = new Scanner(System.in);
-                if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
-                    retryCount = 0;
-                    sendMessage(lastSentMessage);
-                } else {
-                    System.out.println("Game terminated by user.");
-                    System.exit(1);
+            binary = false; // nobody answered, a plain text peer
+        } finally {
+            socket.setSoTimeout(0);
+        }
+        if (!binary) sessionId = null;
+        log("Protocol: " + (binary ? "binary" : "text"));
+        if (binary) startHeartbeat();
+    }
+
+    private void answerHello(Message hello) throws IOException {
+        boolean accept = binaryAllowed && BinaryCodec.BINARY.equals(hello.coordinates());
+        if (accept) {
+            sessionId = UUID.randomUUID().toString();
+            writeLine(new Message(SESSION, sessionId));
+        }
+        writeLine(BinaryCodec.hello(accept)); // still text, the switch happens after the answer
+        binary = accept;
+        log("Protocol: " + (binary ? "binary" : "text"));
+        if (binary) startHeartbeat();
+    }
+
+    private void readLoop() {
+        while (!closed) {
+            try {
+                Message message = read();
+                if (message == null) throw new EOFException("Closed by peer");
+                lastReceivedNanos = System.nanoTime();
+                deliver(message);
+            } catch (IOException | IllegalArgumentException e) {
+                if (closed) return;
+                if (sessionId == null || !resume()) {
+                    log("Connection lost: " + e.getMessage());
+                    if (!inbox.offer(CLOSED)) { // nobody is reading what is queued, the end matters more
+                        inbox.clear();
+                        inbox.offer(CLOSED);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(Message message) throws IOException {
+        if (BinaryCodec.isHello(message)) {
+            answerHello(message);
+            return;
+        }
+        if (binary) {
+            if (BinaryCodec.isPing(message)) return;
+            if (receivedSequence == lastReceivedSequence) return; // a resend we already have
+            lastReceivedSequence = receivedSequence;
+        }
+        enqueue(message);
+    }
+
+    private void enqueue(Message message) throws IOException {
+        if (!inbox.offer(message)) {
+            throw new IOException("Peer sent " + INBOX_CAPACITY + " messages without waiting for an answer");
+        }
+    }
+
+    // status lines share the console with the board, headless games stay quiet
+    private void log(String line) {
+        if (logMessages) System.out.println(line);
+    }
+
+    // reconnects within the configured window: the server waits for the client, the client dials with backoff
+    private boolean resume() {
+        resuming = true;
+        closeQuietly(socket);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(reconnectMillis);
+        long backoff = MIN_BACKOFF_MILLIS;
+        log("Connection dropped, resuming session " + sessionId);
+
+        try {
+            while (!closed && System.nanoTime() < deadline) {
+                try {
+                    boolean resumed = mode.isServer() ? acceptResume(deadline) : dialResume();
+                    if (resumed) {
+                        log("Session resumed");
+                        resend();
+                        return true;
+                    }
+                } catch (IOException e) {
+                    // not back yet, keep trying until the deadline
+                }
+                if (!mode.isServer()) {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
                 }
-            } else {
-                System.out.println("Waiting for response... ( " + retryCount + "/3)");
-                sendMessage(lastSentMessage);
             }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            resuming = false;
+        }
+    }
+
+    private boolean acceptResume(long deadline) throws IOException {
+        serverSocket.setSoTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        attach(serverSocket.accept());
+        return expectResume();
+    }
+
+    private boolean dialResume() throws IOException {
+        attach(new Socket(host, port));
+        writeLine(new Message(RESUME, sessionId));
+        return expectResume();
+    }
+
+    private boolean expectResume() throws IOException {
+        Message resume = new Message(RESUME, sessionId);
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        String line = readLine();
+        if (line == null || !Message.parse(line).equals(resume)) {
+            closeQuietly(socket); // someone else, or a session this side does not know
+            return false;
+        }
+        if (mode.isServer()) writeLine(resume);
+        socket.setSoTimeout(0);
+        return true;
+    }
+
+    private void startHeartbeat() {
+        if (heartbeatMillis <= 0) return;
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void heartbeat() {
+        if (resuming || closed) return;
+
+        Socket current = socket; // read before lastReceivedNanos, which attach resets before it swaps the socket
+        long now = System.nanoTime();
+        if (now - lastReceivedNanos > TimeUnit.MILLISECONDS.toNanos(heartbeatMillis * MISSED_HEARTBEATS)) {
+            closeIfCurrent(current); // the reader fails and tries to resume
+            return;
+        }
+        if (now - lastSentNanos >= TimeUnit.MILLISECONDS.toNanos(heartbeatMillis)) {
+            try {
+                write(BinaryCodec.PING, 0);
+            } catch (IOException e) {
+                // the reader sees the same failure
+            }
+        }
+    }
+
+    // only binary frames carry the sequence byte the receiver drops repeats by; a text line sent twice would be
+    // handled twice, and TCP already delivers it once
+    private synchronized void resend() {
+        if (lastSentMessage == null || !binary) return;
+        Socket current = socket;
+        try {
+            write(lastSentMessage, lastSentSequence);
         } catch (IOException e) {
-            System.out.println("Connection error: " + e.getMessage());
-            System.exit(1);
+            connectionTrouble(e, current);
+        }
+    }
+
+    private void connectionTrouble(IOException e, Socket failed) {
+        if (sessionId == null) {
+            throw new ConnectionLostException("Connection error: " + e.getMessage());
+        }
+        closeIfCurrent(failed); // the reader resumes and resends
+    }
+
+    // a socket that failed may already have been replaced by a resumed one, which must stay open
+    private synchronized void closeIfCurrent(Socket failed) {
+        if (socket == failed) closeQuietly(failed);
+    }
+
+    private synchronized void attach(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        lastReceivedNanos = System.nanoTime(); // before the swap, so the heartbeat never judges a new socket by the old
+        this.socket = socket;
+        this.input = socket.getInputStream();
+        this.output = socket.getOutputStream();
+        in.clear().flip();
+    }
+
+    private synchronized void write(Message message, int sequence) throws IOException {
+        out.clear();
+        if (binary) {
+            BinaryCodec.encode(message, sequence, out);
+        } else {
+            out.put(message.format().getBytes(StandardCharsets.UTF_8));
         }
-        return null;
+        flushOut();
     }
 
-    private Message parseMessage(String line) {
-        String[] parts = line.split(";");
-        String command = parts[0];
-        String coordinates = parts.length > 1 ? parts[1] : null;
-        return new Message(command, coordinates);
+    // handshake lines are text whatever the protocol
+    private synchronized void writeLine(Message message) throws IOException {
+        out.clear();
+        out.put(message.format().getBytes(StandardCharsets.UTF_8));
+        flushOut();
+    }
+
+    private void flushOut() throws IOException {
+        output.write(out.array(), 0, out.position());
+        output.flush();
+        lastSentNanos = System.nanoTime();
+    }
+
+    private Message read() throws IOException {
+        if (binary) {
+            while (in.remaining() < BinaryCodec.FRAME_BYTES) {
+                if (!fill()) return null;
+            }
+            receivedSequence = BinaryCodec.sequence(in);
+            return BinaryCodec.decode(in);
+        }
+
+        String line;
+        do {
+            line = readLine();
+        } while (line != null && line.isEmpty());
+        return line != null ? Message.parse(line) : null;
+    }
+
+    private String readLine() throws IOException {
+        while (true) {
+            for (int i = in.position(); i < in.limit(); i++) {
+                if (in.get(i) != '\n') continue;
+
+                String line = new String(in.array(), in.position(), i - in.position(), StandardCharsets.UTF_8).trim();
+                in.position(i + 1);
+                return line;
+            }
+            if (in.position() == 0 && in.limit() == in.capacity()) {
+                throw new IOException("Line too long");
+            }
+            if (!fill()) return null;
+        }
+    }
+
+    // appends whatever the socket has to the unread bytes, false once the peer has closed
+    private boolean fill() throws IOException {
+        in.compact();
+        try {
+            int read = input.read(in.array(), in.position(), in.remaining());
+            if (read > 0) in.position(in.position() + read);
+            return read >= 0;
+        } finally {
+            in.flip(); // also after a timeout, so the next read sees the same bytes
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) closeable.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
     }
 
     @Override
     public void close() throws IOException {
+        closed = true;
+        scheduler.shutdownNow();
+        reader.interrupt(); // a client waiting out its resume backoff is asleep, not blocked on the socket
         if (serverSocket != null && !serverSocket.isClosed()) {
             serverSocket.close();
         }
         if (socket != null && !socket.isClosed()) {
             socket.close();
         }
-        if (reader != null) {
-            reader.close();
-        }
-        if (writer != null) {
-            writer.close();
-        }
     }
-}
\ No newline at end of file
+}
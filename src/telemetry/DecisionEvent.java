@@ -0,0 +1,20 @@
+package telemetry;
+
+import jdk.jfr.*;
+
+@Name("battleships.Decision")
+@Label("AI Decision")
+@Category({"Battleships", "AI"})
+@Description("The agent choosing its next shot, and which path produced it")
+@StackTrace(false)
+public class DecisionEvent extends Event {
+    @Label("Target")
+    public String target;
+
+    @Label("Source")
+    @Description("Targeting strategy, neighbour of a hit, exploration strategy or Q-value argmax")
+    public String source;
+
+    @Label("Exploration Rate")
+    public double explorationRate;
+}
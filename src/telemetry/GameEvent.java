@@ -0,0 +1,22 @@
+package telemetry;
+
+import jdk.jfr.*;
+
+@Name("battleships.Game")
+@Label("Game")
+@Category({"Battleships", "Game"})
+@Description("A complete game, played interactively or in training")
+@StackTrace(false)
+public class GameEvent extends Event {
+    @Label("Mode")
+    public String mode;
+
+    @Label("Game Id")
+    public long gameId;
+
+    @Label("Shots")
+    public int shots;
+
+    @Label("Won")
+    public boolean won;
+}
@@ -0,0 +1,25 @@
+package telemetry;
+
+import jdk.jfr.*;
+
+@Name("battleships.Message")
+@Label("Network Message")
+@Category({"Battleships", "Network"})
+@Description("A message sent to or received from the opponent; for receives the duration is the wait")
+@StackTrace(false)
+public class MessageEvent extends Event {
+    @Label("Direction")
+    public String direction;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Coordinates")
+    public String coordinates;
+
+    @Label("Binary Protocol")
+    public boolean binary;
+
+    @Label("Retries")
+    public int retries;
+}
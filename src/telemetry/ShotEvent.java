@@ -0,0 +1,16 @@
+package telemetry;
+
+import jdk.jfr.*;
+
+@Name("battleships.Shot")
+@Label("Shot")
+@Category({"Battleships", "Board"})
+@Description("A shot resolved against a board")
+@StackTrace(false)
+public class ShotEvent extends Event {
+    @Label("Target")
+    public String target;
+
+    @Label("Result")
+    public String result;
+}
@@ -0,0 +1,19 @@
+package telemetry;
+
+import jdk.jfr.*;
+
+@Name("battleships.Turn")
+@Label("Turn")
+@Category({"Battleships", "Game"})
+@Description("One shot resolved by Player, including its reply in network games")
+@StackTrace(false)
+public class TurnEvent extends Event {
+    @Label("Shooter")
+    public String shooter;
+
+    @Label("Target")
+    public String target;
+
+    @Label("Result")
+    public String result;
+}
@@ -0,0 +1,181 @@
+package training;
+
+import ai.AgentConfig;
+import ai.AgentSnapshot;
+import ai.QLearningAgent;
+import ai.QTableStore;
+import journal.JournalReader;
+import model.Coordinates;
+import model.GameConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Trains one agent from journaled games instead of live play. Each segment file is read by its own task, decoded into
+ * recycled ShotBatch chunks and handed over through a bounded queue, so memory stays flat however large the journal
+ * is. A single applier replays the batches through QLearningAgent.observe, the same updates live play makes.
+ */
+public class OfflineTrainer {
+    private static final int BATCH_GAMES = 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Path journalPath;
+    private final Path qTablePath;
+    private final int threads;
+    private final int boardSize;
+    private final int[] fleet;
+    private final ShotBatch done = new ShotBatch(0); // handed over once every reader has finished
+    private final AtomicLong skippedGames = new AtomicLong(); // recorded on a board of another size
+    private final AtomicLong oversizedGames = new AtomicLong(); // more shots than a batch keeps per game
+
+    public OfflineTrainer(GameConfig config) {
+        this.journalPath = Path.of(config.getJournalPath());
+        this.qTablePath = config.getQTablePath() != null ? Path.of(config.getQTablePath()) : null;
+        this.threads = config.getThreads();
+        this.boardSize = config.getBoardSize();
+        this.fleet = config.getFleet();
+    }
+
+    public long run() throws IOException {
+        List<Path> segments = JournalReader.segmentsIn(journalPath);
+        if (segments.isEmpty()) {
+            System.out.println("No journal segments in " + journalPath);
+            return 0;
+        }
+
+        int readers = Math.min(threads, segments.size());
+        System.out.println("Training offline from " + segments.size() + " segments with " + readers + " readers");
+        QLearningAgent agent = loadAgent();
+
+        BlockingQueue<ShotBatch> free = new ArrayBlockingQueue<>(2 * readers + 1);
+        BlockingQueue<ShotBatch> full = new ArrayBlockingQueue<>(2 * readers + 2);
+        while (free.remainingCapacity() > 0) {
+            free.add(new ShotBatch(BATCH_GAMES));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        AtomicInteger remaining = new AtomicInteger(segments.size());
+        long start = System.nanoTime();
+        long games = 0;
+        long shots = 0;
+
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Path segment : segments) {
+                tasks.add(pool.submit(() -> readSegment(segment, free, full, remaining)));
+            }
+
+            long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+            ShotBatch batch;
+            while ((batch = full.take()) != done) {
+                apply(agent, batch);
+                games += batch.games;
+                shots += batch.shots;
+                batch.clear();
+                free.put(batch);
+
+                if (System.nanoTime() > nextProgress) {
+                    System.out.printf("%d games, %.0f games/sec%n", games, games / ((System.nanoTime() - start) / 1e9));
+                    nextProgress += PROGRESS_INTERVAL_NANOS;
+                }
+            }
+
+            for (Future<?> task : tasks) {
+                task.get(); // surfaces a reader that failed
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Offline training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Reading the journal failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Trained on %d games (%d shots) in %.2f s: %.0f games/sec, %.0f shots/sec%n",
+                games, shots, seconds, games / seconds, shots / seconds);
+        if (skippedGames.get() > 0) {
+            System.out.printf("Skipped %d games recorded on a board other than %dx%d, see -size%n",
+                    skippedGames.get(), boardSize, boardSize);
+        }
+        if (oversizedGames.get() > 0) {
+            System.out.printf("Skipped %d games with more than %d shots%n",
+                    oversizedGames.get(), ShotBatch.MAX_SHOTS_PER_GAME);
+        }
+
+        if (qTablePath != null) {
+            QTableStore.save(agent.snapshot(), qTablePath);
+            System.out.println("Q-table written to " + qTablePath);
+        }
+        return games;
+    }
+
+    private Void readSegment(Path segment, BlockingQueue<ShotBatch> free, BlockingQueue<ShotBatch> full,
+                             AtomicInteger remaining) throws IOException, InterruptedException {
+        ShotBatch batch = null;
+        JournalReader reader = new JournalReader(List.of(segment));
+        try {
+            batch = free.take();
+            // no game takes more than its share of the batch, so a batch that is not full always has room for one more
+            int gameShots;
+            while ((gameShots = reader.nextShots(boardSize * boardSize, batch.cells, batch.results, batch.shots,
+                    ShotBatch.MAX_SHOTS_PER_GAME)) >= 0) {
+                batch.addGame(gameShots);
+                if (batch.isFull()) {
+                    full.put(batch);
+                    batch = null;
+                    batch = free.take();
+                }
+            }
+            if (batch.games > 0) {
+                full.put(batch);
+                batch = null;
+            }
+            return null;
+        } finally {
+            if (batch != null) { // never handed over, keep the pool whole
+                batch.clear();
+                free.offer(batch);
+            }
+            skippedGames.addAndGet(reader.getSkippedGames());
+            oversizedGames.addAndGet(reader.getOversizedGames());
+            if (remaining.decrementAndGet() == 0) full.put(done);
+        }
+    }
+
+    private void apply(QLearningAgent agent, ShotBatch batch) {
+        int start = 0;
+        for (int game = 0; game < batch.games; game++) {
+            agent.startNewGame();
+            int end = batch.gameEnds[game];
+            for (int i = start; i < end; i++) {
+                Coordinates shot = Coordinates.ofIndex(batch.cells[i] & 0xFF, boardSize);
+                agent.observe(shot, JournalReader.resultName(batch.results[i]));
+            }
+            start = end;
+        }
+    }
+
+    private QLearningAgent loadAgent() throws IOException {
+        if (qTablePath == null || !Files.exists(qTablePath)) {
+            return new QLearningAgent(boardSize, fleet, AgentConfig.getDefault(), null, new SplittableRandom());
+        }
+
+        AgentSnapshot snapshot = QTableStore.load(qTablePath);
+        if (snapshot.boardSize() != boardSize) {
+            throw new IOException("Q-table was learned on a " + snapshot.boardSize() + "x" + snapshot.boardSize()
+                    + " board, not " + boardSize + "x" + boardSize);
+        }
+        System.out.println("Continuing from " + qTablePath);
+        return new QLearningAgent(snapshot, fleet, null, new SplittableRandom());
+    }
+}
@@ -0,0 +1,234 @@
+package training;
+
+import ai.AgentConfig;
+import ai.AgentSnapshot;
+import ai.PosteriorSamplingStrategy;
+import ai.QLearningAgent;
+import ai.QTable;
+import ai.QTableStore;
+import journal.GameJournal;
+import model.Board;
+import model.Coordinates;
+import model.GameConfig;
+import model.GameListener;
+import model.GameSession;
+import telemetry.GameEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+public class SelfPlayTrainer {
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+
+    private final long episodes;
+    private final int boardSize;
+    private final int[] fleet;
+    private final int threads;
+    private final long samplerBudgetMillis;
+    private final Path qTablePath;
+    private final long checkpointSeconds;
+    private final Path journalPath;
+    private final long seed;
+    private final boolean sharedPolicy;
+    private final AtomicLong finishedEpisodes;
+    private final LongAdder samplerSamples;
+    private final LongAdder samplerNanos;
+    private final AtomicReferenceArray<QLearningAgent> agents;
+    private AgentSnapshot initialState;
+    private QTable sharedTable; // the one table every agent learns into, null when each agent keeps its own
+
+    public SelfPlayTrainer(GameConfig config) {
+        this.episodes = config.getEpisodes();
+        this.boardSize = config.getBoardSize();
+        this.fleet = config.getFleet();
+        this.threads = config.getThreads();
+        this.samplerBudgetMillis = config.getSamplerBudgetMillis();
+        this.qTablePath = config.getQTablePath() != null ? Path.of(config.getQTablePath()) : null;
+        this.checkpointSeconds = config.getCheckpointSeconds();
+        this.journalPath = config.getJournalPath() != null ? Path.of(config.getJournalPath()) : null;
+        this.seed = config.getSeed();
+        this.sharedPolicy = config.isSharedPolicy();
+        this.finishedEpisodes = new AtomicLong();
+        this.samplerSamples = new LongAdder();
+        this.samplerNanos = new LongAdder();
+        this.agents = new AtomicReferenceArray<>(threads);
+    }
+
+    public TrainingStats run() {
+        System.out.println("Training on " + episodes + " episodes with " + threads + " threads, "
+                + (sharedPolicy ? "shared" : "private") + " policy, seed " + seed);
+        loadInitialState();
+        if (sharedPolicy) {
+            sharedTable = QTable.shared(boardSize);
+            if (initialState != null) sharedTable.load(initialState.qValues());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService checkpoints = Executors.newSingleThreadScheduledExecutor();
+        if (qTablePath != null && checkpointSeconds > 0) {
+            checkpoints.scheduleWithFixedDelay(this::checkpoint, checkpointSeconds, checkpointSeconds, TimeUnit.SECONDS);
+        }
+        long start = System.nanoTime();
+
+        try {
+            // streams are split here in worker order, so the same seed always hands worker i the same stream
+            SplittableRandom random = new SplittableRandom(seed);
+            List<Future<TrainingStats>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int worker = i;
+                SplittableRandom workerRandom = random.split();
+                workers.add(pool.submit(() -> runWorker(worker, workerRandom)));
+            }
+
+            pool.shutdown();
+            while (!pool.awaitTermination(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+                printProgress(start);
+            }
+
+            TrainingStats total = new TrainingStats(episodes, boardSize * boardSize);
+            for (Future<TrainingStats> worker : workers) {
+                total.merge(worker.get());
+            }
+            total.printReport((System.nanoTime() - start) / 1e9);
+            if (samplerBudgetMillis > 0) {
+                System.out.printf("Posterior sampler: %.0f samples/sec%n",
+                        samplerSamples.sum() * 1e9 / Math.max(1, samplerNanos.sum()));
+            }
+
+            checkpoints.shutdown();
+            checkpoints.awaitTermination(1, TimeUnit.MINUTES);
+            checkpoint();
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Training worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            checkpoints.shutdownNow();
+        }
+    }
+
+    private TrainingStats runWorker(int worker, SplittableRandom random) throws IOException {
+        // every worker owns its agent, board and random streams, nothing is shared on the game path
+        PosteriorSamplingStrategy sampler = samplerBudgetMillis > 0
+                ? new PosteriorSamplingStrategy(boardSize, fleet, samplerBudgetMillis, random.split())
+                : null;
+        QLearningAgent agent = createAgent(sampler, random.split());
+        agents.set(worker, agent);
+        Board board = new Board(boardSize, fleet, random.split());
+        SplittableRandom layouts = random.split();
+        TrainingStats stats = new TrainingStats(episodes, boardSize * boardSize);
+        // one journal per worker, so recording never contends
+        GameJournal journal = journalPath != null ? GameJournal.open(journalPath, "train-" + worker) : null;
+        GameSession session = GameSession.solo(agent, board, journal != null ? new ShotRecorder(journal, agent) : null);
+
+        try {
+            // episodes are striped statically, a worker's games never depend on how fast the others run
+            for (long episode = worker; episode < episodes; episode += threads) {
+                playEpisode(episode, session, board, layouts.split(), stats, journal);
+                finishedEpisodes.incrementAndGet();
+            }
+        } finally {
+            if (journal != null) journal.close();
+        }
+        if (sampler != null) {
+            samplerSamples.add(sampler.getTotalSamples());
+            samplerNanos.add(sampler.getTotalNanos());
+        }
+        return stats;
+    }
+
+    // with a shared policy every agent reads and updates the same table without locks, otherwise each learns alone
+    // and the checkpoint averages them
+    private QLearningAgent createAgent(PosteriorSamplingStrategy sampler, SplittableRandom random) {
+        if (sharedTable != null) {
+            return initialState != null
+                    ? new QLearningAgent(initialState, sharedTable, fleet, sampler, random)
+                    : new QLearningAgent(sharedTable, fleet, AgentConfig.getDefault(), sampler, random);
+        }
+        return initialState != null
+                ? new QLearningAgent(initialState, fleet, sampler, random)
+                : new QLearningAgent(boardSize, fleet, AgentConfig.getDefault(), sampler, random);
+    }
+
+    // one self-play game on a layout drawn from its own stream; the session fires at board, the journal is optional
+    static void playEpisode(long episode, GameSession session, Board board, RandomGenerator layout, TrainingStats stats,
+                            GameJournal journal) throws IOException {
+        GameEvent event = new GameEvent();
+        event.begin();
+        board.generateMap(layout);
+        if (journal != null) journal.beginGame(episode, board);
+
+        boolean won = session.play() == 0;
+        int shots = session.getShots(0);
+        if (journal != null) journal.endGame(won);
+        stats.recordGame(episode, shots, won);
+
+        if (event.shouldCommit()) {
+            event.mode = "train";
+            event.gameId = episode;
+            event.shots = shots;
+            event.won = won;
+            event.commit();
+        }
+    }
+
+    // journals every shot with the part of the agent that chose it
+    private record ShotRecorder(GameJournal journal, QLearningAgent agent) implements GameListener {
+        @Override
+        public void onResult(int side, Coordinates shot, String result) {
+            journal.recordShot(shot, result, agent.getLastShotSource());
+        }
+    }
+
+    private void loadInitialState() {
+        if (qTablePath == null || !Files.exists(qTablePath)) return;
+        try {
+            long start = System.nanoTime();
+            initialState = QTableStore.load(qTablePath);
+            if (initialState.boardSize() != boardSize) {
+                throw new IOException("Q-table was learned on a " + initialState.boardSize() + "x"
+                        + initialState.boardSize() + " board, not " + boardSize + "x" + boardSize);
+            }
+            System.out.printf("Loaded Q-table from %s in %.2f ms%n", qTablePath, (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load Q-table", e);
+        }
+    }
+
+    // reads the live agents without stopping them, the workers keep playing while this writes
+    private void checkpoint() {
+        if (qTablePath == null) return;
+
+        List<AgentSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < agents.length(); i++) {
+            QLearningAgent agent = agents.get(i);
+            if (agent != null) snapshots.add(agent.snapshot());
+        }
+        if (snapshots.isEmpty()) return;
+
+        try {
+            QTableStore.save(AgentSnapshot.average(snapshots), qTablePath);
+            System.out.println("Checkpoint written to " + qTablePath);
+        } catch (IOException e) {
+            System.out.println("Checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    private void printProgress(long start) {
+        long done = finishedEpisodes.get();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d/%d episodes, %.0f games/sec%n", done, episodes, done / elapsed);
+    }
+}
@@ -0,0 +1,32 @@
+package training;
+
+// a chunk of recorded games as flat arrays, refilled and reused so the offline trainer allocates nothing per game
+class ShotBatch {
+    static final int MAX_SHOTS_PER_GAME = 512; // two shots per cell of the largest board a byte index can address
+
+    final byte[] cells;
+    final byte[] results;
+    final int[] gameEnds; // exclusive end of each game's shots
+    int games;
+    int shots;
+
+    ShotBatch(int maxGames) {
+        this.cells = new byte[maxGames * MAX_SHOTS_PER_GAME];
+        this.results = new byte[maxGames * MAX_SHOTS_PER_GAME];
+        this.gameEnds = new int[maxGames];
+    }
+
+    boolean isFull() {
+        return games == gameEnds.length;
+    }
+
+    void addGame(int gameShots) {
+        shots += gameShots;
+        gameEnds[games++] = shots;
+    }
+
+    void clear() {
+        games = 0;
+        shots = 0;
+    }
+}
@@ -0,0 +1,163 @@
+package training;
+
+import ai.AgentConfig;
+import ai.ExplorationConfig;
+import ai.QLearningAgent;
+import model.Board;
+import model.GameConfig;
+import model.GameSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/*
+ * Searches agent and exploration settings. Every configuration trains its own fresh agent for the same number of
+ * games, configurations run side by side on a fixed pool, and the results are ranked by mean shots per win, so the
+ * table favours settings that learn quickly as well as ones that end up strong.
+ * With samples == 0 the whole grid below is tried, otherwise that many configurations are drawn uniformly from the
+ * ranges the grid spans. Every configuration plays the same sequence of boards, so differences in the table come from
+ * the settings and not from easier layouts, and the whole sweep replays from its seed.
+ */
+public class SweepRunner {
+    private static final double[] LEARNING_RATES = {0.05, 0.1, 0.2, 0.5};
+    private static final double[] DISCOUNT_FACTORS = {0.5, 0.9, 0.99};
+    private static final double[] INITIAL_RATES = {0.1, 0.2, 0.4};
+    private static final double[] DECAY_RATES = {0.99, 0.995, 0.999};
+    private static final double[] MIN_RATES = {0.01, 0.05};
+    private static final int[] DECAY_INTERVALS = {1, 10};
+
+    private final long gamesPerConfig;
+    private final int boardSize;
+    private final int[] fleet;
+    private final int threads;
+    private final int samples;
+    private final long seed;
+    private final SplittableRandom random;
+
+    public SweepRunner(GameConfig config) {
+        this.gamesPerConfig = config.getEpisodes();
+        this.boardSize = config.getBoardSize();
+        this.fleet = config.getFleet();
+        this.threads = config.getThreads();
+        this.samples = config.getSweepSamples();
+        this.seed = config.getSeed();
+        this.random = new SplittableRandom(seed);
+    }
+
+    public record Result(AgentConfig config, TrainingStats stats) {}
+
+    public List<Result> run() {
+        List<AgentConfig> configs = samples > 0 ? randomConfigs(samples) : gridConfigs();
+        System.out.println("Sweeping " + configs.size() + " configurations, " + gamesPerConfig + " games each, on "
+                + threads + " threads, seed " + seed);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<Result> completed = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        try {
+            long layoutSeed = random.nextLong();
+            for (AgentConfig config : configs) {
+                SplittableRandom agentRandom = random.split();
+                completed.submit(() -> evaluate(config, agentRandom, new SplittableRandom(layoutSeed)));
+            }
+
+            List<Result> results = new ArrayList<>();
+            while (results.size() < configs.size()) {
+                results.add(completed.take().get());
+                System.out.printf("%d/%d configurations done%n", results.size(), configs.size());
+            }
+
+            results.sort(Comparator.comparingDouble(SweepRunner::rankKey));
+            printTable(results, (System.nanoTime() - start) / 1e9);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Sweep worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Result evaluate(AgentConfig config, SplittableRandom agentRandom, SplittableRandom layouts)
+            throws IOException {
+        QLearningAgent agent = new QLearningAgent(boardSize, fleet, config, null, agentRandom);
+        Board board = new Board(boardSize, fleet, layouts.split());
+        GameSession session = GameSession.solo(agent, board, null);
+        TrainingStats stats = new TrainingStats(gamesPerConfig, boardSize * boardSize);
+        for (long game = 0; game < gamesPerConfig; game++) {
+            SelfPlayTrainer.playEpisode(game, session, board, layouts.split(), stats, null);
+        }
+        return new Result(config, stats);
+    }
+
+    private static List<AgentConfig> gridConfigs() {
+        List<AgentConfig> configs = new ArrayList<>();
+        for (double learningRate : LEARNING_RATES) {
+            for (double discountFactor : DISCOUNT_FACTORS) {
+                for (double initialRate : INITIAL_RATES) {
+                    for (double decayRate : DECAY_RATES) {
+                        for (double minRate : MIN_RATES) {
+                            for (int decayInterval : DECAY_INTERVALS) {
+                                configs.add(new AgentConfig(learningRate, discountFactor,
+                                        new ExplorationConfig(initialRate, decayRate, minRate, decayInterval)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    private List<AgentConfig> randomConfigs(int count) {
+        List<AgentConfig> configs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ExplorationConfig exploration = new ExplorationConfig(
+                    between(INITIAL_RATES),
+                    between(DECAY_RATES),
+                    between(MIN_RATES),
+                    DECAY_INTERVALS[0] + random.nextInt(DECAY_INTERVALS[DECAY_INTERVALS.length - 1] - DECAY_INTERVALS[0] + 1));
+            configs.add(new AgentConfig(between(LEARNING_RATES), between(DISCOUNT_FACTORS), exploration));
+        }
+        return configs;
+    }
+
+    private double between(double[] values) {
+        return values[0] + random.nextDouble() * (values[values.length - 1] - values[0]);
+    }
+
+    // configurations that never won sort last
+    private static double rankKey(Result result) {
+        return result.stats().getWins() > 0 ? result.stats().meanShotsPerWin() : Double.MAX_VALUE;
+    }
+
+    private void printTable(List<Result> results, double elapsedSeconds) {
+        long games = results.size() * gamesPerConfig;
+        System.out.printf("Played %d games in %.2f s (%.0f games/sec)%n", games, elapsedSeconds, games / elapsedSeconds);
+        System.out.println("Rank  alpha  gamma  eps0   decay   epsMin  every   won%    mean   p50   p90   p99");
+        for (int i = 0; i < results.size(); i++) {
+            AgentConfig config = results.get(i).config();
+            ExplorationConfig exploration = config.exploration();
+            TrainingStats stats = results.get(i).stats();
+            System.out.printf("%4d  %5.3f  %5.3f  %5.3f  %6.4f  %6.4f  %5d  %5.1f  %6.2f  %4d  %4d  %4d%n",
+                    i + 1,
+                    config.learningRate(),
+                    config.discountFactor(),
+                    exploration.initialRate(),
+                    exploration.decayRate(),
+                    exploration.minRate(),
+                    exploration.decayInterval(),
+                    100.0 * stats.getWins() / Math.max(1, stats.getGames()),
+                    stats.meanShotsPerWin(),
+                    stats.shotsPerWinPercentile(50),
+                    stats.shotsPerWinPercentile(90),
+                    stats.shotsPerWinPercentile(99));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package training;
+
+public class TrainingStats {
+    private static final int WINDOWS = 20;
+    private static final int MAX_BUCKETS = 4096; // large boards share histogram buckets, percentiles round up to a bucket
+
+    private final int maxShots;
+    private final int bucketWidth;
+    private final long windowSize;
+    private final long[] shotsHistogram;
+    private final long[] windowGames;
+    private final long[] windowWins;
+    private final long[] windowShots;
+    private long games;
+    private long wins;
+    private long totalShots;
+
+    public TrainingStats(long episodes, int maxShots) {
+        this.maxShots = maxShots;
+        this.windowSize = Math.max(1, (episodes + WINDOWS - 1) / WINDOWS);
+        this.bucketWidth = Math.max(1, (maxShots + MAX_BUCKETS - 1) / MAX_BUCKETS);
+        this.shotsHistogram = new long[maxShots / bucketWidth + 1];
+        this.windowGames = new long[WINDOWS];
+        this.windowWins = new long[WINDOWS];
+        this.windowShots = new long[WINDOWS];
+    }
+
+    public void recordGame(long episode, int shots, boolean won) {
+        int window = (int) Math.min(WINDOWS - 1, episode / windowSize);
+        games++;
+        windowGames[window]++;
+        if (won) {
+            wins++;
+            totalShots += shots;
+            shotsHistogram[Math.min(shots, maxShots) / bucketWidth]++;
+            windowWins[window]++;
+            windowShots[window] += shots;
+        }
+    }
+
+    public void merge(TrainingStats other) {
+        games += other.games;
+        wins += other.wins;
+        totalShots += other.totalShots;
+        for (int i = 0; i < shotsHistogram.length; i++) {
+            shotsHistogram[i] += other.shotsHistogram[i];
+        }
+        for (int i = 0; i < WINDOWS; i++) {
+            windowGames[i] += other.windowGames[i];
+            windowWins[i] += other.windowWins[i];
+            windowShots[i] += other.windowShots[i];
+        }
+    }
+
+    public long getGames() { return games; }
+    public long getWins() { return wins; }
+
+    public double meanShotsPerWin() {
+        return wins > 0 ? (double) totalShots / wins : 0;
+    }
+
+    public int shotsPerWinPercentile(double percentile) {
+        if (wins == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile / 100.0 * wins);
+        long seen = 0;
+        for (int bucket = 0; bucket < shotsHistogram.length; bucket++) {
+            seen += shotsHistogram[bucket];
+            if (seen >= Math.max(1, rank)) return Math.min(maxShots, bucket * bucketWidth + bucketWidth - 1);
+        }
+        return maxShots;
+    }
+
+    public void printReport(double elapsedSeconds) {
+        System.out.printf("Games: %d, wins: %d, %.0f games/sec%n", games, wins, games / elapsedSeconds);
+        System.out.printf("Shots per win: mean %.2f, p50 %d, p90 %d, p99 %d%n",
+                meanShotsPerWin(),
+                shotsPerWinPercentile(50),
+                shotsPerWinPercentile(90),
+                shotsPerWinPercentile(99));
+
+        System.out.println("Convergence (mean shots per win):");
+        for (int i = 0; i < WINDOWS; i++) {
+            if (windowGames[i] == 0) continue;
+            double mean = windowWins[i] > 0 ? (double) windowShots[i] / windowWins[i] : 0;
+            System.out.printf("  episodes %d-%d: %.2f (%d/%d won)%n",
+                    i * windowSize, i * windowSize + windowGames[i] - 1, mean, windowWins[i], windowGames[i]);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QTableStoreTest {
+    // byte offsets into the header, see QTableStore
+    private static final int BOARD_SIZE = 8;
+    private static final int LEARNING_RATE = 12;
+    private static final int DECAY_INTERVAL = 52;
+    private static final int EXPLORATION_RATE = 56;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRoundTrips() throws IOException {
+        Path file = saved();
+        AgentSnapshot loaded = QTableStore.load(file);
+
+        assertEquals(3, loaded.boardSize());
+        assertEquals(0.1, loaded.learningRate());
+        assertEquals(ExplorationConfig.getDefault(), loaded.explorationConfig());
+        assertEquals(42, loaded.explorationMoves());
+        assertArrayEquals(values(), loaded.qValues());
+    }
+
+    @Test
+    void rejectsADamagedHeader() throws IOException {
+        assertRejected(buffer -> buffer.putInt(BOARD_SIZE, -3));
+        assertRejected(buffer -> buffer.putInt(BOARD_SIZE, 4));
+        assertRejected(buffer -> buffer.putDouble(LEARNING_RATE, Double.NaN));
+        assertRejected(buffer -> buffer.putDouble(EXPLORATION_RATE, Double.POSITIVE_INFINITY));
+        assertRejected(buffer -> buffer.putInt(DECAY_INTERVAL, 0));
+    }
+
+    private void assertRejected(Consumer<ByteBuffer> damage) throws IOException {
+        Path file = saved();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        damage.accept(buffer);
+        Files.write(file, buffer.array());
+        assertThrows(IOException.class, () -> QTableStore.load(file));
+    }
+
+    private Path saved() throws IOException {
+        Path file = directory.resolve("agent.qt");
+        QTableStore.save(new AgentSnapshot(3, 0.1, 0.9, ExplorationConfig.getDefault(), 0.15, 42, values()), file);
+        return file;
+    }
+
+    private static double[] values() {
+        double[] values = new double[9];
+        for (int cell = 0; cell < values.length; cell++) values[cell] = cell * 0.5;
+        return values;
+    }
+}
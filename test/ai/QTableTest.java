@@ -0,0 +1,104 @@
+package ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QTableTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void denseWindowSumsFollowEveryWrite() {
+        int size = 7;
+        QTable table = QTable.create(size);
+        assertInstanceOf(DenseQTable.class, table);
+        SplittableRandom rng = new SplittableRandom(1);
+        for (int write = 0; write < 200; write++) {
+            int cell = rng.nextInt(size * size);
+            if (write % 2 == 0) {
+                table.set(cell, rng.nextDouble(-1, 1));
+            } else {
+                table.update(cell, 0.3, rng.nextDouble(-1, 1));
+            }
+            assertSumsMatch(table);
+        }
+    }
+
+    @Test
+    void denseWindowSumsFollowALoad() {
+        int size = 5;
+        QTable table = QTable.create(size);
+        double[] values = new double[size * size];
+        for (int cell = 0; cell < values.length; cell++) values[cell] = cell * 0.25 - 3;
+        table.load(values);
+
+        for (int cell = 0; cell < values.length; cell++) {
+            assertEquals(values[cell], table.get(cell));
+        }
+        assertSumsMatch(table);
+    }
+
+    @Test
+    void sharedUpdateMovesTowardTheTarget() {
+        QTable table = QTable.shared(4);
+        table.set(5, 1.0);
+        table.update(5, 0.25, 3.0);
+        assertEquals(1.5, table.get(5), EPSILON);
+    }
+
+    @Test
+    void sharedUpdatesAreNeverLost() throws InterruptedException {
+        // halving is exact, so the value shows how many updates landed no matter how they interleaved
+        int threads = 4;
+        int updatesPerThread = 250;
+        QTable table = QTable.shared(4);
+        table.set(0, 0x1p40);
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < updatesPerThread; i++) {
+                    table.update(0, 0.5, 0.0);
+                    Thread.yield();
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        assertEquals(Math.scalb(1.0, 40 - threads * updatesPerThread), table.get(0));
+    }
+
+    @Test
+    void sharedTablesStayDense() {
+        assertThrows(IllegalArgumentException.class, () -> QTable.shared(QTable.MAX_DENSE_SIZE + 1));
+    }
+
+    private static void assertSumsMatch(QTable table) {
+        int size = table.boardSize();
+        for (int line = 0; line < size; line++) {
+            for (int from = 0; from < size; from++) {
+                double row = 0;
+                double column = 0;
+                for (int to = from; to < size; to++) {
+                    row += table.get(line * size + to);
+                    column += table.get(to * size + line);
+                    assertEquals(row, table.rowSum(line, from, to), EPSILON);
+                    assertEquals(column, table.columnSum(line, from, to), EPSILON);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package journal;
+
+import ai.ShotSource;
+import model.CellMask;
+import model.Coordinates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameJournalTest {
+    private static final int SIZE = 2;
+    private static final int CELLS = SIZE * SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void repeatsPastTheReserveAreDropped() throws IOException {
+        CellMask ships = new CellMask(CELLS);
+        ships.set(3);
+        // a segment of one byte is grown to exactly one game, so nothing but the reserve limits the shots
+        try (GameJournal journal = GameJournal.open(directory, "repeats", 1)) {
+            journal.beginGame(1, SIZE, ships);
+            for (int shot = 0; shot < 10 * CELLS; shot++) {
+                journal.recordShot(Coordinates.ofIndex(shot % 3, SIZE), "miss", ShotSource.HUMAN);
+            }
+            journal.endGame(false);
+
+            journal.beginGame(2, SIZE, ships);
+            journal.recordShot(Coordinates.ofIndex(3, SIZE), "last ship sunk", ShotSource.HUMAN);
+            journal.endGame(true);
+        }
+
+        JournalReader reader = new JournalReader(directory);
+        JournalGame first = reader.next();
+        assertEquals(1, first.id());
+        assertEquals(2 * CELLS, first.shots().size());
+        assertFalse(first.won());
+
+        JournalGame second = reader.next();
+        assertEquals(2, second.id());
+        assertEquals(1, second.shots().size());
+        assertEquals("last ship sunk", second.shots().get(0).result());
+        assertTrue(second.won());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void bulkReadStaysWithinTwoShotsPerCell() throws IOException {
+        CellMask ships = new CellMask(CELLS);
+        try (GameJournal journal = GameJournal.open(directory, "bulk")) {
+            journal.beginGame(1, SIZE, ships);
+            for (int shot = 0; shot < 10 * CELLS; shot++) {
+                journal.recordShot(Coordinates.ofIndex(0, SIZE), "miss", ShotSource.HUMAN);
+            }
+            journal.endGame(false);
+        }
+
+        byte[] cells = new byte[2 * CELLS];
+        byte[] results = new byte[2 * CELLS];
+        JournalReader reader = new JournalReader(directory);
+        assertEquals(2 * CELLS, reader.nextShots(CELLS, cells, results, 0, cells.length));
+        assertEquals(-1, reader.nextShots(CELLS, cells, results, 0, cells.length));
+    }
+
+    @Test
+    void bulkReadSkipsGamesPastTheCapacity() throws IOException {
+        CellMask ships = new CellMask(CELLS);
+        try (GameJournal journal = GameJournal.open(directory, "capacity")) {
+            for (int game = 1; game <= 2; game++) {
+                journal.beginGame(game, SIZE, ships);
+                for (int shot = 0; shot < 4 * game; shot++) {
+                    journal.recordShot(Coordinates.ofIndex(shot % CELLS, SIZE), "miss", ShotSource.HUMAN);
+                }
+                journal.endGame(false);
+            }
+        }
+
+        // only the first game fits in what is left of the arrays, the second is skipped rather than overrunning them
+        byte[] cells = new byte[6];
+        byte[] results = new byte[6];
+        JournalReader reader = new JournalReader(directory);
+        assertEquals(4, reader.nextShots(CELLS, cells, results, 1, cells.length - 1));
+        assertEquals(-1, reader.nextShots(CELLS, cells, results, 5, cells.length - 5));
+        assertEquals(1, reader.getOversizedGames());
+        assertEquals(0, reader.getSkippedGames());
+    }
+}
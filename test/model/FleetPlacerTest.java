@@ -0,0 +1,101 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetPlacerTest {
+
+    @Test
+    void placesTheStandardFleetWithoutShipsTouching() {
+        int[] fleet = Board.getShipSizes();
+        FleetPlacer placer = new FleetPlacer(Board.DEFAULT_SIZE, fleet);
+        SplittableRandom rng = new SplittableRandom(1);
+        int[] chosen = new int[fleet.length];
+        for (int layout = 0; layout < 500; layout++) {
+            placer.placeFleet(rng, chosen);
+            assertLegal(placer, fleet, chosen, Board.DEFAULT_SIZE);
+        }
+    }
+
+    @Test
+    void uniformPlacementIsLegalToo() {
+        int[] fleet = Board.getShipSizes();
+        FleetPlacer placer = new FleetPlacer(Board.DEFAULT_SIZE, fleet);
+        SplittableRandom rng = new SplittableRandom(2);
+        int[] chosen = new int[fleet.length];
+        for (int layout = 0; layout < 100; layout++) {
+            placer.placeFleetUniformly(rng, chosen);
+            assertLegal(placer, fleet, chosen, Board.DEFAULT_SIZE);
+        }
+    }
+
+    @Test
+    void findsTheOnlyLayoutOfATightFleet() {
+        // four single cells on 3x3 only fit in the corners
+        int[] fleet = {1, 1, 1, 1};
+        FleetPlacer placer = new FleetPlacer(3, fleet);
+        int[] chosen = new int[fleet.length];
+        placer.placeFleet(new SplittableRandom(3), chosen);
+
+        boolean[] covered = new boolean[9];
+        for (int ship = 0; ship < fleet.length; ship++) {
+            covered[placer.cells(ship, chosen[ship])[0]] = true;
+        }
+        for (int corner : new int[] {0, 2, 6, 8}) {
+            assertTrue(covered[corner], "corner " + corner);
+        }
+    }
+
+    @Test
+    void refusesAFleetThatCannotFit() {
+        FleetPlacer placer = new FleetPlacer(3, new int[] {1, 1, 1, 1, 1});
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> placer.placeFleet(new SplittableRandom(4), new int[5]));
+        assertEquals("Fleet does not fit on the board", e.getMessage());
+    }
+
+    @Test
+    void boardSinksEveryShipExactlyOnce() {
+        Board board = new Board(new SplittableRandom(5));
+        int sunk = 0;
+        String result = null;
+        for (int cell = 0; cell < Board.DEFAULT_SIZE * Board.DEFAULT_SIZE; cell++) {
+            result = board.checkShot(Coordinates.ofIndex(cell, Board.DEFAULT_SIZE));
+            if (!result.equals("miss") && !result.equals("hit")) sunk++;
+            if (result.equals("last ship sunk")) break;
+        }
+        assertEquals("last ship sunk", result);
+        assertEquals(Board.getShipSizes().length, sunk);
+        assertFalse(board.hasShipsLeft());
+    }
+
+    private static void assertLegal(FleetPlacer placer, int[] fleet, int[] chosen, int boardSize) {
+        int[] owner = new int[boardSize * boardSize];
+        for (int ship = 0; ship < fleet.length; ship++) {
+            int[] cells = placer.cells(ship, chosen[ship]);
+            assertEquals(fleet[ship], cells.length);
+            for (int cell : cells) {
+                assertEquals(0, owner[cell], "overlapping ships");
+                owner[cell] = ship + 1;
+            }
+        }
+        // no cell of one ship may have a cell of another among its eight neighbours
+        for (int cell = 0; cell < owner.length; cell++) {
+            if (owner[cell] == 0) continue;
+            int row = cell / boardSize;
+            int col = cell % boardSize;
+            for (int r = Math.max(0, row - 1); r <= Math.min(boardSize - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(boardSize - 1, col + 1); c++) {
+                    int neighbour = owner[r * boardSize + c];
+                    assertTrue(neighbour == 0 || neighbour == owner[cell], "ships touch at " + cell);
+                }
+            }
+        }
+    }
+}
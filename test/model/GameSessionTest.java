@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSessionTest {
+
+    @Test
+    void soloGameEndsOnTheLastShipAndCountsEveryShot() {
+        Board target = new Board(new SplittableRandom(1));
+        RecordingListener listener = new RecordingListener();
+        GameSession session = GameSession.solo(new RandomShooter(Board.DEFAULT_SIZE, new SplittableRandom(2)), target,
+                listener);
+
+        assertEquals(0, session.play());
+        assertEquals(listener.results.size(), session.getShots(0));
+        assertEquals("last ship sunk", listener.results.get(listener.results.size() - 1));
+        assertTrue(session.getShots(0) >= target.getShips().cardinality());
+        assertTrue(listener.sides.stream().allMatch(side -> side == 0));
+    }
+
+    @Test
+    void sidesAlternateAndTheFirstShooterWinsAnEvenRace() {
+        // the same layout and the same sweep on both sides: both need the same number of shots, so the first wins
+        Board first = new Board(new SplittableRandom(3));
+        Board second = new Board(new SplittableRandom(3));
+        RecordingListener listener = new RecordingListener();
+        GameSession session = new GameSession(new SweepShooter(100), first, new SweepShooter(100), second, listener);
+
+        assertEquals(0, session.play());
+        assertEquals(session.getShots(0), session.getShots(1) + 1);
+        for (int i = 0; i < listener.sides.size(); i++) {
+            assertEquals(i % 2, listener.sides.get(i));
+        }
+    }
+
+    @Test
+    void aShooterOutOfShotsSitsOut() {
+        Board first = new Board(new SplittableRandom(4));
+        Board second = new Board(new SplittableRandom(5));
+        GameSession session = new GameSession(new SweepShooter(3), first, new SweepShooter(100), second, null);
+
+        assertEquals(1, session.play());
+        assertEquals(3, session.getShots(0));
+    }
+
+    @Test
+    void nobodyWinsWhenBothRunOut() {
+        Board first = new Board(new SplittableRandom(6));
+        Board second = new Board(new SplittableRandom(7));
+        GameSession session = new GameSession(new SweepShooter(5), first, new SweepShooter(5), second, null);
+
+        assertEquals(GameSession.NO_WINNER, session.play());
+        assertEquals(5, session.getShots(0));
+        assertEquals(5, session.getShots(1));
+    }
+
+    @Test
+    void sessionIsReusedAcrossGames() {
+        Board target = new Board(new SplittableRandom(8));
+        SweepShooter shooter = new SweepShooter(100);
+        GameSession session = GameSession.solo(shooter, target, null);
+
+        for (int game = 1; game <= 3; game++) {
+            target.generateMap();
+            assertEquals(0, session.play());
+            assertEquals(game, shooter.games);
+            assertTrue(session.getShots(0) <= 100);
+        }
+    }
+
+    // fires row-major from the first cell, giving up after `limit` shots
+    private static class SweepShooter implements Shooter {
+        private final int limit;
+        private int next;
+        private int games;
+
+        SweepShooter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void startNewGame() {
+            next = 0;
+            games++;
+        }
+
+        @Override
+        public Coordinates getNextShot() {
+            return next < limit ? Coordinates.ofIndex(next++, Board.DEFAULT_SIZE) : null;
+        }
+
+        @Override
+        public void updateFromResult(String result) {
+        }
+    }
+
+    private static class RecordingListener implements GameListener {
+        private final List<Integer> sides = new ArrayList<>();
+        private final List<String> results = new ArrayList<>();
+
+        @Override
+        public void onResult(int side, Coordinates shot, String result) {
+            sides.add(side);
+            results.add(result);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package network;
+
+import model.Board;
+import model.Coordinates;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCodecTest {
+    private static final String[] COMMANDS = {"start", "miss", "hit", "hit and sunk", "last ship sunk"};
+
+    @Test
+    void everyShotRoundTripsWithItsSequenceNumber() {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.FRAME_BYTES);
+        int sequence = 0;
+        for (String command : COMMANDS) {
+            for (int cell = 0; cell < Board.DEFAULT_SIZE * Board.DEFAULT_SIZE; cell++) {
+                Message message = new Message(command, Coordinates.ofIndex(cell, Board.DEFAULT_SIZE).toString());
+                buffer.clear();
+                BinaryCodec.encode(message, sequence, buffer);
+                buffer.flip();
+
+                assertEquals(sequence & 0xFF, BinaryCodec.sequence(buffer));
+                assertEquals(0, buffer.position(), "sequence must not consume the frame");
+                assertEquals(message, BinaryCodec.decode(buffer));
+                assertEquals(0, buffer.remaining());
+                sequence++;
+            }
+        }
+    }
+
+    @Test
+    void sequenceNumbersWrapAtOneByte() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * BinaryCodec.FRAME_BYTES);
+        BinaryCodec.encode(new Message("start", null), 255, buffer);
+        BinaryCodec.encode(new Message("start", null), 256, buffer);
+        buffer.flip();
+
+        assertEquals(255, BinaryCodec.sequence(buffer));
+        assertEquals(new Message("start", null), BinaryCodec.decode(buffer));
+        assertEquals(0, BinaryCodec.sequence(buffer));
+        assertEquals(new Message("start", null), BinaryCodec.decode(buffer));
+    }
+
+    @Test
+    void decodingSharesOneMessagePerFrame() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * BinaryCodec.FRAME_BYTES);
+        BinaryCodec.encode(new Message("hit", "C7"), 1, buffer);
+        BinaryCodec.encode(new Message("hit", "C7"), 2, buffer);
+        buffer.flip();
+        assertSame(BinaryCodec.decode(buffer), BinaryCodec.decode(buffer));
+    }
+
+    @Test
+    void pingIsRecognised() {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.FRAME_BYTES);
+        BinaryCodec.encode(BinaryCodec.PING, 9, buffer);
+        buffer.flip();
+        assertTrue(BinaryCodec.isPing(BinaryCodec.decode(buffer)));
+    }
+
+    @Test
+    void waitsForAWholeFrame() {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.FRAME_BYTES);
+        BinaryCodec.encode(new Message("miss", "A1"), 3, buffer);
+        buffer.flip().limit(BinaryCodec.FRAME_BYTES - 1);
+
+        assertNull(BinaryCodec.decode(buffer));
+        assertEquals(0, buffer.position());
+        buffer.limit(BinaryCodec.FRAME_BYTES);
+        assertEquals(new Message("miss", "A1"), BinaryCodec.decode(buffer));
+    }
+
+    @Test
+    void rejectsMalformedFrames() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decode(ByteBuffer.wrap(new byte[] {0, 42, 0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decode(ByteBuffer.wrap(new byte[] {0, 2, 100})));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.encode(new Message("resign", null), 0, ByteBuffer.allocate(BinaryCodec.FRAME_BYTES)));
+    }
+}
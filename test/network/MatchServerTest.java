@@ -0,0 +1,171 @@
+package network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a binary and a text client play through a real server on the loopback interface
+class MatchServerTest {
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    private MatchServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new MatchServer(0);
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                // the selector closed under the loop when the test ended
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void relaysAMatchBetweenBinaryAndText() throws IOException {
+        try (BinaryClient binary = new BinaryClient(server.getPort())) {
+            // opened while still alone in the lobby, replayed once the opponent arrives
+            binary.send("start", "A1", 0);
+
+            try (TextClient text = new TextClient(server.getPort())) {
+                assertEquals("start;A1", text.read());
+
+                // both sides open in client mode; the second start is dropped and the answer goes through instead
+                text.send("start;J10");
+                text.send("miss;B2");
+                assertEquals(new Message("miss", "B2"), binary.read());
+                assertEquals(0, binary.lastSequence);
+
+                // a resent frame is relayed once
+                binary.send("hit", "C3", 1);
+                binary.send("hit", "C3", 1);
+                binary.send("miss", "D4", 2);
+                assertEquals("hit;C3", text.read());
+                assertEquals("miss;D4", text.read());
+
+                // heartbeats are answered by the server, never relayed
+                binary.send("ping", null, 0);
+                assertTrue(BinaryCodec.isPing(binary.read()));
+
+                text.send("hit and sunk;E5");
+                assertEquals(new Message("hit and sunk", "E5"), binary.read());
+                assertEquals(1, binary.lastSequence);
+
+                binary.send("last ship sunk", "F6", 3);
+                assertEquals("last ship sunk;F6", text.read());
+
+                // the match is over and both connections are closed
+                assertNull(text.read());
+                assertEquals(-1, binary.in.read());
+            }
+        }
+
+        // the server goes on hosting
+        try (TextClient first = new TextClient(server.getPort());
+             TextClient second = new TextClient(server.getPort())) {
+            first.send("start;A1");
+            assertEquals("start;A1", second.read());
+            second.send("last ship sunk;A1");
+            assertEquals("last ship sunk;A1", first.read());
+        }
+    }
+
+    private static class TextClient implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final OutputStream out;
+
+        TextClient(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = socket.getOutputStream();
+        }
+
+        void send(String line) throws IOException {
+            out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static class BinaryClient implements AutoCloseable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private int lastSequence;
+
+        BinaryClient(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            in = new DataInputStream(socket.getInputStream());
+            out = socket.getOutputStream();
+
+            out.write(BinaryCodec.hello(true).format().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals(BinaryCodec.hello(true), Message.parse(readLine(in)));
+        }
+
+        void send(String command, String coordinates, int sequence) throws IOException {
+            ByteBuffer frame = ByteBuffer.allocate(BinaryCodec.FRAME_BYTES);
+            BinaryCodec.encode(new Message(command, coordinates), sequence, frame);
+            out.write(frame.array());
+            out.flush();
+        }
+
+        Message read() throws IOException {
+            byte[] frame = new byte[BinaryCodec.FRAME_BYTES];
+            in.readFully(frame);
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            lastSequence = BinaryCodec.sequence(buffer);
+            return BinaryCodec.decode(buffer);
+        }
+
+        // byte by byte, so nothing after the newline is taken from the frames behind it
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) >= 0 && b != '\n') line.append((char) b);
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}